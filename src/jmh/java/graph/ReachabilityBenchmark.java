@@ -0,0 +1,90 @@
+package graph;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare reachability queries answered by a BFS on the graph with the reachability index
+ * Run with: gradle jmh -Pjmh.args="ReachabilityBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReachabilityBenchmark {
+	
+	// Number of vertices, with two random edges per vertex
+	@Param({"1000", "10000"})
+	private int size;
+	
+	// Number of queries per operation
+	private static final int QUERIES = 64;
+	
+	// Components
+	private Graph<Integer,String> graph;
+	private Vertex<Integer,String>[] vertices;
+	private Reachability reachability;
+	private int[] from, to;
+	
+	@Setup
+	public void setup() {
+		Random random = new Random(42);
+		graph = new Graph<>(true);
+		for(int v = 0; v < size; v++)
+			graph.addVertex(v);
+		vertices = graph.vertices_array();
+		for(int e = 0; e < 2 * size; e++)
+			graph.addEdge(vertices[random.nextInt(size)], vertices[random.nextInt(size)]);
+		reachability = graph.reachability();
+		
+		// Random queries
+		from = new int[QUERIES];
+		to = new int[QUERIES];
+		for(int q = 0; q < QUERIES; q++) {
+			from[q] = random.nextInt(size);
+			to[q] = random.nextInt(size);
+		}
+	}
+	
+	@Benchmark
+	public Reachability buildIndex() {
+		return graph.reachability();
+	}
+	
+	@Benchmark
+	public int queryIndex() {
+		int count = 0;
+		for(int q = 0; q < QUERIES; q++)
+			if(reachability.reaches(from[q], to[q]))
+				count++;
+		return count;
+	}
+	
+	@Benchmark
+	public int queryBFS() {
+		int count = 0;
+		for(int q = 0; q < QUERIES; q++) {
+			for(Vertex<Integer,String> vertex : graph.BFS(vertices[from[q]])) {
+				if(vertex == vertices[to[q]]) {
+					count++;
+					break;
+				}
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,202 @@
+package parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import parser.ABParserTable.ABParserTableCell;
+import parser.grammar.ABGrammar;
+import parser.grammar.ABGrammarToken;
+import scanner.ABParserTokenSource;
+import scanner.ABScanner;
+import scanner.ABToken;
+
+/**
+ * Compare the String parse table with the compiled one on the parser examples, each parsed 1000 times per operation
+ * The drivers only recognize the input, with the same error recovery as the parser, so the difference is the table lookup.
+ * Run with: gradle jmh -Pjmh.args="ABParseTableBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ABParseTableBenchmark {
+	
+	// Example file
+	@Param({"example1", "example2", "example3", "example4", "example5", "example6", "example7"})
+	private String example;
+	
+	// Parses per operation
+	private static final int REPEAT = 1000;
+	
+	// Components
+	private ABGrammar abGrammar;
+	private ABParserTable table;
+	private CompiledParseTable compiled;
+	
+	// Parser input, ending with $
+	private ABToken[] tokens;
+	private int[] kinds;
+	
+	@Setup
+	public void setup() throws IOException {
+		abGrammar = new ABGrammar("/parser/grammar.bnf");
+		table = new ABParserTable(abGrammar);
+		compiled = table.getCompiledTable();
+		
+		// Scan
+		ABScanner abScanner = new ABScanner("/scanner/machine.dfa");
+		abScanner.processText(IOUtils.toString(getClass().getResource("/parser/input/" + example + ".txt")));
+		ABParserTokenSource source = new ABParserTokenSource(abScanner.getNonErrorTokens().iterator());
+		List<ABToken> input = new ArrayList<>();
+		ABToken token;
+		while((token = source.nextToken()) != null)
+			input.add(token);
+		tokens = input.toArray(new ABToken[input.size()]);
+		kinds = new int[tokens.length];
+		for(int i = 0; i < tokens.length; i++)
+			kinds[i] = tokens[i].getKind();
+		
+		// Same errors
+		if(stringTable() != compiledCells() || stringTable() != compiledActions())
+			throw new IllegalStateException("Drivers do not match on " + example);
+	}
+	
+	@Benchmark
+	public int stringTable() {
+		int errors = 0;
+		for(int i = 0; i < REPEAT; i++) {
+			Stack<ABGrammarToken> stack = new Stack<>();
+			stack.push(new ABGrammarToken(ABGrammarToken.END_OF_STACK));
+			stack.push(new ABGrammarToken(abGrammar.getStart()));
+			int index = 0;
+			while(!stack.peek().isEndOfStack()) {
+				ABGrammarToken top = stack.peek();
+				if(top.isAction()) {
+					stack.pop();
+				} else if(top.isTerminal()) {
+					if(!top.getValue().equals(tokens[index].getToken()))
+						errors++;
+					else
+						index++;
+					stack.pop();
+				} else {
+					ABParserTableCell cell = table.getTableAt(top.getValue(), tokens[index].getToken());
+					if(!cell.isError()) {
+						stack.pop();
+						List<ABGrammarToken> production = cell.getProductionWithAction();
+						for(int p = production.size() - 1; p >= 0; p--)
+							if(!production.get(p).isEpsilon())
+								stack.push(production.get(p));
+					} else {
+						errors++;
+						if(cell.getErrorDecision().equals(ABParserTableCell.POP))
+							stack.pop();
+						else
+							index++;
+					}
+				}
+			}
+		}
+		return errors;
+	}
+	
+	@Benchmark
+	public int compiledCells() {
+		int errors = 0;
+		for(int i = 0; i < REPEAT; i++) {
+			Stack<ABGrammarToken> stack = new Stack<>();
+			stack.push(new ABGrammarToken(ABGrammarToken.END_OF_STACK));
+			ABGrammarToken start = new ABGrammarToken(abGrammar.getStart());
+			start.setSymbol(compiled.getStartSymbol());
+			stack.push(start);
+			int index = 0;
+			while(!stack.peek().isEndOfStack()) {
+				ABGrammarToken top = stack.peek();
+				if(top.isAction()) {
+					stack.pop();
+				} else if(top.isTerminal()) {
+					if(top.getKind() != kinds[index])
+						errors++;
+					else
+						index++;
+					stack.pop();
+				} else {
+					ABParserTableCell cell = compiled.getCell(top.getSymbol(), kinds[index]);
+					if(!cell.isError()) {
+						stack.pop();
+						List<ABGrammarToken> production = cell.getProductionWithAction();
+						for(int p = production.size() - 1; p >= 0; p--)
+							if(!production.get(p).isEpsilon())
+								stack.push(production.get(p));
+					} else {
+						errors++;
+						if(cell.getErrorDecision().equals(ABParserTableCell.POP))
+							stack.pop();
+						else
+							index++;
+					}
+				}
+			}
+		}
+		return errors;
+	}
+	
+	@Benchmark
+	public int compiledActions() {
+		int errors = 0;
+		int[] stack = new int[64];
+		for(int i = 0; i < REPEAT; i++) {
+			int top = 0;
+			stack[top++] = compiled.getEndOfStack();
+			stack[top++] = compiled.getStartSymbol();
+			int index = 0;
+			int terminal = compiled.getTerminal(kinds[index]);
+			while(stack[top - 1] != compiled.getEndOfStack()) {
+				int symbol = stack[--top];
+				if(compiled.isAction(symbol))
+					continue;
+				if(compiled.isTerminal(symbol)) {
+					if(symbol != terminal)
+						errors++;
+					else
+						terminal = compiled.getTerminal(kinds[++index]);
+					continue;
+				}
+				int action = compiled.getAction(symbol, kinds[index]);
+				if(action >= 0) {
+					int length = compiled.getProductionLength(action);
+					if(top + length > stack.length)
+						stack = Arrays.copyOf(stack, Math.max(stack.length * 2, top + length));
+					for(int p = length - 1; p >= 0; p--)
+						stack[top++] = compiled.getProductionSymbol(action, p);
+				} else {
+					errors++;
+					if(action == CompiledParseTable.ERROR_SCAN) {
+						stack[top++] = symbol;
+						terminal = compiled.getTerminal(kinds[++index]);
+					}
+				}
+			}
+		}
+		return errors;
+	}
+}
@@ -0,0 +1,167 @@
+package parser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Stack;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import parser.ABParserTable.ABParserTableCell;
+import parser.grammar.ABGrammar;
+import parser.grammar.ABGrammarToken;
+import scanner.ABParserTokenSource;
+import scanner.ABScanner;
+import scanner.ABToken;
+import scanner.TokenSource;
+import semantic.ABSemantic;
+
+/**
+ * Compare ABParser.parse in fast mode with the driver it replaced
+ * The old driver runs the two phases on a java.util.Stack of copied grammar tokens with the String table, builds
+ * the tree of grammar tokens and runs the same semantic actions, without the snapshots. The setup checks that both
+ * accept the same examples with the same semantic errors.
+ * Run with: gradle jmh -Pjmh.args="ABParserDriverBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ABParserDriverBenchmark {
+	
+	// Example file
+	@Param({"example1", "example2", "example3", "example4", "example5", "example6", "example7"})
+	private String example;
+	
+	// Components
+	private ABParser abParser;
+	private ABGrammar abGrammar;
+	private ABParserTable abParseTable;
+	private List<ABToken> scannerTokens;
+	
+	// Semantic of the last old driver run
+	private ABSemantic semantic;
+	
+	@Setup
+	public void setup() throws IOException {
+		abParser = new ABParser("/parser/grammar.bnf");
+		abParser.setFastMode(true);
+		abGrammar = new ABGrammar("/parser/grammar.bnf");
+		abParseTable = new ABParserTable(abGrammar);
+		
+		// Scan
+		ABScanner abScanner = new ABScanner("/scanner/machine.dfa");
+		abScanner.processText(IOUtils.toString(getClass().getResource("/parser/input/" + example + ".txt")));
+		scannerTokens = abScanner.getNonErrorTokens();
+		
+		// Same result and semantic errors
+		boolean expected = stackDriver(), actual = parser();
+		String expectedErrors = StringUtils.join(semantic.getErrors(), '\n');
+		String actualErrors = StringUtils.join(abParser.getSemantic().getErrors(), '\n');
+		if(expected != actual || !expectedErrors.equals(actualErrors))
+			throw new IllegalStateException(String.format("Drivers do not match on %s: %s, %s", example, expected, actual));
+	}
+	
+	@Benchmark
+	public boolean parser() {
+		return abParser.parse(scannerTokens);
+	}
+	
+	/**
+	 * Parse the input like ABParser did before the compiled table, the snapshots excluded
+	 * @return true if no syntax error
+	 */
+	@Benchmark
+	public boolean stackDriver() {
+		TokenSource source = new ABParserTokenSource(scannerTokens.iterator());
+		List<ABToken> tokens = new ArrayList<>();
+		Stack<ABGrammarToken> stack = new Stack<>();
+		semantic = new ABSemantic();
+		semantic.setInputTokens(tokens);
+		boolean error = false;
+		int inputTokenIndex = 0;
+		
+		// $ and S
+		stack.push(new ABGrammarToken(ABGrammarToken.END_OF_STACK));
+		ABGrammarToken treeRoot = new ABGrammarToken(abGrammar.getStart());
+		ABToken inputToken = tokenAt(source, tokens, inputTokenIndex);
+		
+		// Run multiple times
+		for(int phase = 1; phase <= 2; phase++) {
+			stack.push(treeRoot);
+			inputTokenIndex = 0;
+			inputToken = tokenAt(source, tokens, inputTokenIndex);
+			while(!stack.peek().isEndOfStack()) {
+				ABGrammarToken grammarToken = stack.peek();
+				if(grammarToken.isAction()) {
+					ABGrammarToken token = stack.pop();
+					if(!error)
+						semantic.eval(token, inputTokenIndex, phase);
+				} else if(grammarToken.isTerminal()) {
+					if(grammarToken.getKind() == inputToken.getKind()) {
+						if(phase == 1)
+							grammarToken.setTerminalValue(inputToken);
+						inputToken = tokenAt(source, tokens, ++inputTokenIndex);
+					} else {
+						error = true;
+					}
+					stack.pop();
+				} else {
+					ABParserTableCell cell = abParseTable.getTableAt(grammarToken.getValue(), inputToken.getToken());
+					if(!cell.isError()) {
+						List<ABGrammarToken> productionWithAction = cell.getCopyOfProductionWithAction();
+						stack.pop();
+						for(int pTokenId = productionWithAction.size() - 1; pTokenId >= 0; --pTokenId) {
+							if(!productionWithAction.get(pTokenId).isEpsilon())
+								stack.push(productionWithAction.get(pTokenId));
+							if(phase == 1)
+								grammarToken.addChild(productionWithAction.get(pTokenId));
+						}
+					} else {
+						if(cell.getErrorDecision().equals(ABParserTableCell.POP))
+							stack.pop();
+						else
+							inputToken = tokenAt(source, tokens, ++inputTokenIndex);
+						error = true;
+					}
+				}
+			}
+		}
+		
+		// Unparsed input
+		if(error || !inputToken.getToken().equals(ABGrammarToken.END_OF_STACK))
+			return false;
+		semantic.tablesToString();
+		semantic.checkStructureErrors();
+		return true;
+	}
+	
+	/**
+	 * Get an input token, pulled from the source when needed
+	 * @param source
+	 * @param tokens tokens pulled so far
+	 * @param index
+	 * @return token
+	 */
+	private ABToken tokenAt(TokenSource source, List<ABToken> tokens, int index) {
+		ABToken token;
+		while(tokens.size() <= index && (token = source.nextToken()) != null)
+			tokens.add(token);
+		return tokens.get(index);
+	}
+}
@@ -0,0 +1,146 @@
+package scanner;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Scan a generated program with processText and with a mapped file.
+ * Each mode runs in its own JVM so the peak heap only includes that mode, with the heap limit of this JVM.
+ * processText holds the text and its tokens, about 13 bytes of heap per byte of program, so the default
+ * 500 MB program needs a heap above 6 GB, otherwise it is reported as out of memory.
+ * Run with: gradle mappedFileBenchmark [-Pmb=500] [-Pheap=8g]
+ */
+public class ABMappedFileBenchmark {
+	
+	// Modes
+	private static final String PROCESS_TEXT = "processText";
+	private static final String MAPPED_FILE = "mappedFile";
+	
+	public static void main(String[] args) throws Exception {
+		
+		// Run one mode
+		if(args.length == 2) {
+			run(args[0], Paths.get(args[1]));
+			return;
+		}
+		
+		// Generate program
+		long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 500;
+		Path path = Files.createTempFile("program", ".txt");
+		try {
+			generate(path, megabytes * 1024 * 1024);
+			System.out.printf("Generated %d MB program: %s%n", megabytes, path);
+			
+			// Run each mode in a new JVM
+			for(String mode : new String[]{PROCESS_TEXT, MAPPED_FILE}) {
+				List<String> command = new ArrayList<>();
+				command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+				command.add("-Xmx" + Runtime.getRuntime().maxMemory() / (1024 * 1024) + "m");
+				command.add("-cp");
+				command.add(System.getProperty("java.class.path"));
+				command.add(ABMappedFileBenchmark.class.getName());
+				command.add(mode);
+				command.add(path.toString());
+				
+				Process process = new ProcessBuilder(command).redirectErrorStream(true).start();
+				BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream()));
+				String line;
+				while((line = output.readLine()) != null)
+					System.out.println(line);
+				process.waitFor();
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+	
+	/**
+	 * Scan a file and report throughput and peak heap
+	 * @param mode
+	 * @param path
+	 * @throws IOException
+	 */
+	private static void run(String mode, Path path) throws IOException {
+		ABScanner abScanner = new ABScanner("/scanner/machine.dfa");
+		long bytes = Files.size(path);
+		long tokens = 0;
+		
+		// Do not count the scanner creation
+		resetPeakHeap();
+		long time = System.nanoTime();
+		try {
+			if(mode.equals(PROCESS_TEXT)) {
+				abScanner.processText(new String(Files.readAllBytes(path), StandardCharsets.UTF_8));
+				tokens = abScanner.getNonErrorTokens().size() + abScanner.getErrorTokens().size();
+			} else {
+				try(ABScannerCursor cursor = abScanner.stream(path)) {
+					while(cursor.hasNext()) {
+						cursor.next();
+						tokens++;
+					}
+				}
+			}
+		} catch (OutOfMemoryError e) {
+			System.out.printf("%-12s out of memory with -Xmx%dm%n", mode, Runtime.getRuntime().maxMemory() / (1024 * 1024));
+			return;
+		}
+		double seconds = (System.nanoTime() - time) / 1e9;
+		System.out.printf("%-12s %,d tokens in %.2f s: %.1f MB/s, peak heap %,d MB%n", mode, tokens, seconds, bytes / seconds / (1024 * 1024), getPeakHeap() / (1024 * 1024));
+	}
+	
+	/**
+	 * Write example programs until the file has the requested size
+	 * @param path
+	 * @param size
+	 * @throws IOException
+	 */
+	private static void generate(Path path, long size) throws IOException {
+		
+		// Load examples
+		StringBuilder program = new StringBuilder();
+		for(int i = 1; i <= 5; i++)
+			program.append(IOUtils.toString(ABMappedFileBenchmark.class.getResource("/scanner/input/example" + i + ".txt"))).append('\n');
+		byte[] bytes = program.toString().getBytes(StandardCharsets.UTF_8);
+		
+		// Repeat
+		try(OutputStream out = Files.newOutputStream(path)) {
+			for(long written = 0; written < size; written += bytes.length)
+				out.write(bytes);
+		}
+	}
+	
+	/**
+	 * Reset peak usage of heap pools
+	 */
+	private static void resetPeakHeap() {
+		System.gc();
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if(pool.getType() == MemoryType.HEAP)
+				pool.resetPeakUsage();
+	}
+	
+	/**
+	 * Get peak heap usage
+	 * @return sum of heap pools peak usage in bytes
+	 */
+	private static long getPeakHeap() {
+		long peak = 0;
+		for(MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+			if(pool.getType() == MemoryType.HEAP)
+				peak += pool.getPeakUsage().getUsed();
+		return peak;
+	}
+}
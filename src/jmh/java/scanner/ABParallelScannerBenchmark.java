@@ -0,0 +1,78 @@
+package scanner;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare sequential and parallel scanning of a large program on different numbers of threads
+ * Run with: gradle jmh -Pjmh.args="ABParallelScannerBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ABParallelScannerBenchmark {
+	
+	// Threads in the pool
+	@Param({"1", "2", "4", "8"})
+	private int threads;
+	
+	// Program size in MB
+	@Param({"16"})
+	private int megabytes;
+	
+	// Components
+	private ABScanner abScanner;
+	private ForkJoinPool pool;
+	private String input;
+	
+	@Setup
+	public void setup() throws IOException {
+		abScanner = new ABScanner("/scanner/machine.dfa");
+		pool = new ForkJoinPool(threads);
+		
+		// Repeat the examples
+		StringBuilder program = new StringBuilder();
+		for(int i = 1; i <= 5; i++)
+			program.append(IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt"))).append('\n');
+		StringBuilder text = new StringBuilder();
+		while(text.length() < megabytes * 1024 * 1024)
+			text.append(program);
+		input = text.toString();
+	}
+	
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+	
+	@Benchmark
+	public List<ABToken> processText() {
+		abScanner.processText(input);
+		return abScanner.getNonErrorTokens();
+	}
+	
+	@Benchmark
+	public List<ABToken> processTextParallel() {
+		abScanner.processTextParallel(input, pool);
+		return abScanner.getNonErrorTokens();
+	}
+}
@@ -0,0 +1,57 @@
+package scanner;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare token value creation on the scanner examples
+ * Run with: gradle jmh -Pjmh.args="ABScannerBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ABScannerBenchmark {
+	
+	// Example file
+	@Param({"example1", "example2", "example3", "example4", "example5"})
+	private String example;
+	
+	// Components
+	private ABScanner abScanner;
+	private String input;
+	
+	@Setup
+	public void setup() throws IOException {
+		abScanner = new ABScanner("/scanner/machine.dfa");
+		input = IOUtils.toString(getClass().getResource("/scanner/input/" + example + ".txt"));
+	}
+	
+	@Benchmark
+	public List<ABToken> processText() {
+		abScanner.processText(input);
+		return abScanner.getNonErrorTokens();
+	}
+	
+	@Benchmark
+	public List<ABToken> processTextByLine() {
+		abScanner.processTextByLine(input);
+		return abScanner.getNonErrorTokens();
+	}
+}
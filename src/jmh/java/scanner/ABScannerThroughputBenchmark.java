@@ -0,0 +1,96 @@
+package scanner;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Scanner throughput on generated programs of increasing size
+ * The tokens and bytes counters give tokens/s and bytes/s (the programs are ASCII), and the GC profiler gives the allocation rate.
+ * Run with: gradle scannerBenchmark, or gradle jmh -Pjmh.args="ABScannerThroughputBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ABScannerThroughputBenchmark {
+	
+	// Program kind
+	@Param({ABSyntheticPrograms.IDENTIFIERS, ABSyntheticPrograms.NUMBERS, ABSyntheticPrograms.COMMENTS, ABSyntheticPrograms.ERRORS})
+	private String kind;
+	
+	// Program size in KB
+	@Param({"16", "256", "4096"})
+	private int kilobytes;
+	
+	// Components
+	private ABScanner abScanner;
+	private CompiledLexer lexer;
+	private String input;
+	
+	/**
+	 * Tokens and bytes scanned by a thread, reported per second
+	 */
+	@State(Scope.Thread)
+	@AuxCounters
+	public static class Counters {
+		public long tokens;
+		public long bytes;
+		
+		@Setup(Level.Iteration)
+		public void reset() {
+			tokens = 0;
+			bytes = 0;
+		}
+	}
+	
+	@Setup
+	public void setup() throws IOException {
+		abScanner = new ABScanner("/scanner/machine.dfa");
+		lexer = abScanner.getLexer();
+		input = ABSyntheticPrograms.generate(kind, kilobytes * 1024, 42);
+	}
+	
+	@Benchmark
+	public List<ABToken> processText(Counters counters) {
+		abScanner.processText(input);
+		counters.tokens += abScanner.getNonErrorTokens().size() + abScanner.getErrorTokens().size();
+		counters.bytes += input.length();
+		return abScanner.getNonErrorTokens();
+	}
+	
+	@Benchmark
+	public int cursor(Counters counters) {
+		ABScannerCursor cursor = lexer.scan(input);
+		int tokens = 0;
+		while(cursor.nextToken() != null)
+			tokens++;
+		counters.tokens += tokens;
+		counters.bytes += input.length();
+		return tokens;
+	}
+	
+	@Benchmark
+	public ABTokenBuffer tokenize(Counters counters) {
+		ABTokenBuffer tokens = lexer.tokenize(input);
+		counters.tokens += tokens.size();
+		counters.bytes += input.length();
+		return tokens;
+	}
+}
@@ -0,0 +1,162 @@
+package scanner;
+
+import java.util.Random;
+
+/**
+ * Generate programs that stress one part of the scanner
+ * The same kind, size and seed always give the same program.
+ */
+public class ABSyntheticPrograms {
+	
+	// Program kinds
+	public static final String IDENTIFIERS = "identifiers";
+	public static final String NUMBERS = "numbers";
+	public static final String COMMENTS = "comments";
+	public static final String ERRORS = "errors";
+	
+	// Chars used in identifiers
+	private static final String LETTERS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	private static final String LETTERS_AND_DIGITS = LETTERS + "0123456789_";
+	
+	// Reserved words mixed with the identifiers
+	private static final String[] RESERVED_WORDS = {"if", "then", "else", "for", "class", "int", "float", "get", "put", "return", "and", "not", "or", "program"};
+	
+	// Invalid chars
+	private static final String INVALID_CHARS = "@#$%^&!?~`\\\"'";
+	
+	/**
+	 * Generate a program
+	 * @param kind
+	 * @param size number of chars
+	 * @param seed
+	 * @return program
+	 */
+	public static String generate(String kind, int size, long seed) {
+		Random random = new Random(seed);
+		StringBuilder program = new StringBuilder(size + 128);
+		while(program.length() < size) {
+			switch(kind) {
+			case IDENTIFIERS:
+				identifierLine(program, random);
+				break;
+			case NUMBERS:
+				numberLine(program, random);
+				break;
+			case COMMENTS:
+				commentLines(program, random);
+				break;
+			case ERRORS:
+				errorLine(program, random);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown program kind: " + kind);
+			}
+		}
+		return program.toString();
+	}
+	
+	/**
+	 * Declarations and assignments of long identifiers and reserved words
+	 * @param program
+	 * @param random
+	 */
+	private static void identifierLine(StringBuilder program, Random random) {
+		if(random.nextInt(4) == 0)
+			program.append(RESERVED_WORDS[random.nextInt(RESERVED_WORDS.length)]).append(' ');
+		identifier(program, random);
+		program.append(" = ");
+		identifier(program, random);
+		program.append('.');
+		identifier(program, random);
+		program.append(" + ");
+		identifier(program, random);
+		program.append(";\n");
+	}
+	
+	/**
+	 * Assignments of integer and float expressions
+	 * @param program
+	 * @param random
+	 */
+	private static void numberLine(StringBuilder program, Random random) {
+		program.append("x = ");
+		for(int i = 0; i < 6; i++) {
+			if(i > 0)
+				program.append(random.nextBoolean() ? " + " : " * ");
+			program.append(1 + random.nextInt(999999));
+			if(random.nextBoolean())
+				program.append('.').append(random.nextInt(1000)).append(1 + random.nextInt(9));
+		}
+		program.append(";\n");
+	}
+	
+	/**
+	 * Block and inline comments around a short statement
+	 * @param program
+	 * @param random
+	 */
+	private static void commentLines(StringBuilder program, Random random) {
+		program.append("/* ");
+		for(int line = 0, lines = 1 + random.nextInt(4); line < lines; line++) {
+			words(program, random, 8);
+			program.append('\n');
+		}
+		program.append("*/\n");
+		program.append("a = b; // ");
+		words(program, random, 6);
+		program.append('\n');
+	}
+	
+	/**
+	 * Invalid chars, leading and trailing zeros and bad floats
+	 * @param program
+	 * @param random
+	 */
+	private static void errorLine(StringBuilder program, Random random) {
+		for(int i = 0; i < 8; i++) {
+			switch(random.nextInt(5)) {
+			case 0:
+				program.append(INVALID_CHARS.charAt(random.nextInt(INVALID_CHARS.length())));
+				break;
+			case 1:
+				program.append('0').append(1 + random.nextInt(999));
+				break;
+			case 2:
+				program.append(1 + random.nextInt(99)).append('.').append(random.nextInt(99)).append("00");
+				break;
+			case 3:
+				program.append(1 + random.nextInt(99)).append(".x");
+				break;
+			default:
+				identifier(program, random);
+			}
+			program.append(' ');
+		}
+		program.append('\n');
+	}
+	
+	/**
+	 * Append an identifier
+	 * @param program
+	 * @param random
+	 */
+	private static void identifier(StringBuilder program, Random random) {
+		program.append(LETTERS.charAt(random.nextInt(LETTERS.length())));
+		for(int i = 0, length = 3 + random.nextInt(12); i < length; i++)
+			program.append(LETTERS_AND_DIGITS.charAt(random.nextInt(LETTERS_AND_DIGITS.length())));
+	}
+	
+	/**
+	 * Append words separated by spaces
+	 * @param program
+	 * @param random
+	 * @param count
+	 */
+	private static void words(StringBuilder program, Random random, int count) {
+		for(int i = 0; i < count; i++) {
+			for(int j = 0, length = 2 + random.nextInt(8); j < length; j++)
+				program.append(LETTERS.charAt(random.nextInt(26)));
+			program.append(' ');
+		}
+	}
+}
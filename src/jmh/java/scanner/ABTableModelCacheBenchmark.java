@@ -0,0 +1,60 @@
+package scanner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.IOUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compare parsing machine.dfa with reading its binary cache
+ * Run with: gradle jmh -Pjmh.args="ABTableModelCacheBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ABTableModelCacheBenchmark {
+	
+	// Machine
+	private static final String DFA_FILE = "/scanner/machine.dfa";
+	
+	// Cache content
+	private byte[] hash, cache;
+	
+	@Setup
+	public void setup() throws IOException {
+		hash = ABTableModelCache.hash(IOUtils.toByteArray(getClass().getResourceAsStream(DFA_FILE)));
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ABTableModelCache.write(ABTableModelCache.parse(DFA_FILE), hash, out);
+		cache = out.toByteArray();
+	}
+	
+	@Benchmark
+	public ABTableModel parse() throws IOException {
+		return ABTableModelCache.parse(DFA_FILE);
+	}
+	
+	@Benchmark
+	public ABTableModel readCache() throws IOException {
+		return ABTableModelCache.read(new ByteArrayInputStream(cache), hash);
+	}
+	
+	@Benchmark
+	public ABTableModel load() throws IOException {
+		return ABTableModelCache.load(DFA_FILE);
+	}
+}
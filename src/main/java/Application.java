@@ -12,6 +12,7 @@ import gui.MainFrame;
 import gui.listener.ABIDEListener;
 import parser.grammar.ABGrammarToken;
 import scanner.ABScanner;
+import scanner.ABScannerErrorPolicy;
 import scanner.ABToken;
 import scanner.helper.ErrorHelper;
 import semantic.ABSemantic;
@@ -26,6 +27,7 @@ public class Application {
 		
 		// Create scanner
 		final ABScanner abScanner = new ABScanner("/scanner/machine.dfa");
+		abScanner.setErrorPolicy(ABScannerErrorPolicy.DEFAULT);
 		
 		// Create parser
 		final ABParser abParser = new ABParser("/parser/grammar.bnf");
@@ -43,13 +45,27 @@ public class Application {
 			// Compile
 			boolean doesCompile = true;
 			
+			// Last scanned text and its tokens
+			private String scannedText = "";
+			private List<ABToken> scannedTokens = new ArrayList<>();
+			
 			/**
 			 * Analyze 
 			 */
 			
 			@Override
 			public void scan(String text) {
-				abScanner.processText(text);
+				
+				// Find the part changed since the last scan
+				int prefix = 0, suffix = 0, max = Math.min(text.length(), scannedText.length());
+				while(prefix < max && text.charAt(prefix) == scannedText.charAt(prefix))
+					prefix++;
+				while(suffix < max - prefix && text.charAt(text.length() - 1 - suffix) == scannedText.charAt(scannedText.length() - 1 - suffix))
+					suffix++;
+				
+				// Scan only that part again
+				scannedTokens = abScanner.processEdit(scannedText, prefix, scannedText.length() - prefix - suffix, text.substring(prefix, text.length() - suffix), scannedTokens);
+				scannedText = text;
 				doesCompile = abScanner.getErrorTokens().size() == 0;
 			}
 			
@@ -8,9 +8,19 @@ import graph.doublyLinkedList.NodeIterator;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -139,6 +149,7 @@ public class FiniteAutomata {
 	
 	/**
 	 * Process a string
+	 * All the paths are followed together, one char at a time, so lambda cycles and long inputs are safe
 	 * @param input
 	 */
 	public boolean process(String input){
@@ -147,9 +158,53 @@ public class FiniteAutomata {
 		if(initialState == null)
 			throw new FiniteAutomataException("An initial state is required");
 		
-		// Store correct transitions
+		// States reached after each char, with the transition that reached them first
+		List<Map<State, Transition>> reached = new ArrayList<>(input.length() + 1);
+		Map<State, Transition> current = new LinkedHashMap<>();
+		current.put(initialState, null);
+		closure(current);
+		reached.add(current);
+		
+		// Read input
+		for(int i = 0; i < input.length() && !current.isEmpty(); i++){
+			char read = input.charAt(i);
+			Map<State, Transition> next = new LinkedHashMap<>();
+			for(State state : current.keySet()){
+				for(Transition transition : state.getTransition()){
+					if(transition.getRead() == read && !next.containsKey(transition.getToState()))
+						next.put(transition.getToState(), transition);
+				}
+			}
+			closure(next);
+			reached.add(next);
+			current = next;
+		}
+		
+		// Find a final state after the last char
+		State finalState = null;
+		if(reached.size() == input.length() + 1){
+			for(State state : current.keySet()){
+				if(state.isFinal()){
+					finalState = state;
+					break;
+				}
+			}
+		}
+		
+		// Walk back to the initial state to store correct transitions
 		DoublyLinkedList<Transition> list = new DoublyLinkedList<Transition>();
-		boolean process = process_step(input, initialState, list);
+		int position = input.length();
+		State state = finalState;
+		while(state != null){
+			Transition transition = reached.get(position).get(state);
+			if(transition == null)
+				break;
+			
+			list.addFirst(transition);
+			if(transition.getRead() != Transition.LAMBDA)
+				position--;
+			state = transition.getFromState();
+		}
 		
 		// Store transitions in an array
 		processTransitions = new Transition[list.size()];
@@ -159,47 +214,143 @@ public class FiniteAutomata {
 			processTransitions[index++] = iterT.next();
 		
 		// return process
-		return process;
+		return finalState != null;
 	}
 	
 	/**
-	 * Process recursive call
-	 * @param input
-	 * @param state
-	 * @param list
-	 * @return boolean
+	 * Add the states reachable with lambda transitions
+	 * @param states states and the transition that reached them
+	 */
+	private void closure(Map<State, Transition> states){
+		Deque<State> pending = new ArrayDeque<>(states.keySet());
+		while(!pending.isEmpty()){
+			for(Transition transition : pending.pop().getTransition()){
+				if(transition.getRead() == Transition.LAMBDA && !states.containsKey(transition.getToState())){
+					states.put(transition.getToState(), transition);
+					pending.push(transition.getToState());
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Convert to a DFA using the subset construction
+	 * Each state of the DFA is a set of states closed under lambda transitions. Sets are
+	 * memoised so each one is created once. If a set has many final states, the token and
+	 * backtrack are taken from the first one in the machine.
+	 * The initial state is added first and missing transitions are left out.
+	 * @return DFA
 	 */
-	private boolean process_step(String input, State state, DoublyLinkedList<Transition> list){
+	public FiniteAutomata toDFA(){
 		
-		// If empty string and final state
-		if(input.length() == 0 && state.isFinal())
-			return true;
+		// An initial state is required to start
+		if(initialState == null)
+			throw new FiniteAutomataException("An initial state is required");
 		
-		// Iterate on outgoing transitions
-		NodeIterator<Edge<State,Transition>> iterE = state.getVertex().getOutEdges();
-		while(iterE.hasNext()){
-			Transition transition = iterE.next().getLabel();
-			
-			// Check for lambda transitions
-			if(transition.getRead() == Transition.LAMBDA){
-				if(process_step(input, transition.getEdge().getV2().getData(), list)){
-					list.addFirst(transition);
-					return true;
-				}
+		// Index states
+		State[] states = getStates();
+		Map<State, Integer> stateIndex = new HashMap<>();
+		for(int i = 0; i < states.length; i++)
+			stateIndex.put(states[i], i);
+		
+		// Labels without lambda
+		List<Character> labels = new ArrayList<>();
+		for(char label : getAllTransitionLabels())
+			if(label != Transition.LAMBDA)
+				labels.add(label);
+		
+		// Lambda closure of each state
+		BitSet[] stateClosure = new BitSet[states.length];
+		for(int i = 0; i < states.length; i++){
+			Map<State, Transition> closure = new HashMap<>();
+			closure.put(states[i], null);
+			closure(closure);
+			stateClosure[i] = new BitSet(states.length);
+			for(State state : closure.keySet())
+				stateClosure[i].set(stateIndex.get(state));
+		}
+		
+		// Closed set reached from each state on each label
+		BitSet[][] move = new BitSet[states.length][labels.size()];
+		for(int i = 0; i < states.length; i++){
+			for(int a = 0; a < labels.size(); a++)
+				move[i][a] = new BitSet(states.length);
+			for(Transition transition : states[i].getTransition())
+				if(transition.getRead() != Transition.LAMBDA)
+					move[i][labels.indexOf(transition.getRead())].or(stateClosure[stateIndex.get(transition.getToState())]);
+		}
+		
+		// Create the DFA states as sets are discovered
+		FiniteAutomata dfa = new FiniteAutomata(vertexPrefix);
+		Map<BitSet, State> subsetState = new HashMap<>();
+		List<BitSet> subsets = new ArrayList<>();
+		BitSet initialSubset = stateClosure[stateIndex.get(initialState)];
+		subsetState.put(initialSubset, dfa.addSubsetState(initialSubset, states, true));
+		subsets.add(initialSubset);
+		
+		for(int i = 0; i < subsets.size(); i++){
+			BitSet subset = subsets.get(i);
+			State fromState = subsetState.get(subset);
 			
-			// If not empty string and read match
-			} else if(input.length() > 0 && transition.getRead() == input.charAt(0)){
-				if(process_step(input.substring(1), transition.getEdge().getV2().getData(), list)){
-					list.addFirst(transition);
-					return true;
+			for(int a = 0; a < labels.size(); a++){
+				
+				// Union of the moves of each state in the set
+				BitSet target = new BitSet(states.length);
+				for(int s = subset.nextSetBit(0); s >= 0; s = subset.nextSetBit(s + 1))
+					target.or(move[s][a]);
+				if(target.isEmpty())
+					continue;
+				
+				// Memoised set
+				State toState = subsetState.get(target);
+				if(toState == null){
+					toState = dfa.addSubsetState(target, states, false);
+					subsetState.put(target, toState);
+					subsets.add(target);
 				}
+				dfa.addTransition(fromState, toState, labels.get(a));
 			}
 		}
-		
-		// No transition found
-		return false;
+		return dfa;
+	}
+	
+	/**
+	 * Add a state representing a set of states
+	 * @param subset indices of the states
+	 * @param states
+	 * @param initial
+	 * @return added state
+	 */
+	private State addSubsetState(BitSet subset, State[] states, boolean initial){
+		
+		// First final state in the set
+		State finalState = null;
+		for(int s = subset.nextSetBit(0); s >= 0 && finalState == null; s = subset.nextSetBit(s + 1))
+			if(states[s].isFinal())
+				finalState = states[s];
+		
+		State state;
+		if(finalState == null){
+			state = addState(initial ? State.INITIAL : State.NORMAL);
+		} else {
+			state = addState(initial ? State.INITIAL_FINAL : State.FINAL);
+			state.setToken(finalState.getToken());
+			state.setBacktrack(finalState.getBacktrack());
+		}
+		return state;
 	}
 	
+	/**
+	 * Check if the machine has lambda transitions
+	 * @return boolean
+	 */
+	public boolean hasLambdaTransitions(){
+		NodeIterator<Edge<State, Transition>> iterE = FA.edges();
+		while(iterE.hasNext())
+			if(iterE.next().getLabel().getRead() == Transition.LAMBDA)
+				return true;
+		return false;
+	}
 	
 	/**
 	 * Remove old initial state (if any). Choose an initial state
@@ -332,7 +483,7 @@ public class FiniteAutomata {
 		NodeIterator<Edge<State, Transition>> iterE = FA.edges();
 		while(iterE.hasNext())
 			output += String.format("%s\n", iterE.next().getLabel());
-
+		
 		return output;
 	}
 	
@@ -343,7 +494,7 @@ public class FiniteAutomata {
 	public String toDot() {
 		String output = "digraph finite_state_machine {\n";
 		output += "	rankdir=LR;\n";
-
+		
 		// Final states
 		output += "	node [shape = doublecircle];\n";
 		output += "	";
@@ -402,6 +553,171 @@ public class FiniteAutomata {
 		return labelsArray;
 	}
 	
+	/**
+	 * Minimize a DFA using Hopcroft's partition refinement
+	 * States are merged if they have the same final status, token and backtrack, and if their
+	 * transitions on every label go to merged states. A missing transition only matches
+	 * a missing transition, so fallback labels such as 'O' keep their meaning.
+	 * Unreachable states are dropped and the initial state is added first.
+	 * @return minimized machine
+	 */
+	public FiniteAutomata minimize(){
+		
+		// An initial state is required to start
+		if(initialState == null)
+			throw new FiniteAutomataException("An initial state is required");
+		
+		// Index reachable states in breadth first order
+		List<State> states = new ArrayList<>();
+		Map<State, Integer> stateIndex = new HashMap<>();
+		states.add(initialState);
+		stateIndex.put(initialState, 0);
+		for(int i = 0; i < states.size(); i++){
+			for(Transition transition : states.get(i).getTransition()){
+				if(transition.getRead() == Transition.LAMBDA)
+					throw new FiniteAutomataException("Only a DFA can be minimized");
+				
+				State toState = transition.getToState();
+				if(!stateIndex.containsKey(toState)){
+					stateIndex.put(toState, states.size());
+					states.add(toState);
+				}
+			}
+		}
+		
+		// Index labels
+		char[] labels = getAllTransitionLabels();
+		Map<Character, Integer> labelIndex = new HashMap<>();
+		for(int a = 0; a < labels.length; a++)
+			labelIndex.put(labels[a], a);
+		
+		// Transition function, missing transitions go to an extra sink state
+		int sink = states.size();
+		int[][] delta = new int[sink + 1][labels.length];
+		for(int s = 0; s <= sink; s++){
+			Arrays.fill(delta[s], sink);
+			if(s == sink)
+				continue;
+			
+			for(Transition transition : states.get(s).getTransition()){
+				int a = labelIndex.get(transition.getRead());
+				if(delta[s][a] != sink)
+					throw new FiniteAutomataException("Only a DFA can be minimized");
+				delta[s][a] = stateIndex.get(transition.getToState());
+			}
+		}
+		
+		// Inverse transition function
+		int[][][] inverse = new int[labels.length][sink + 1][];
+		int[] count = new int[sink + 1];
+		for(int a = 0; a < labels.length; a++){
+			Arrays.fill(count, 0);
+			for(int s = 0; s <= sink; s++)
+				count[delta[s][a]]++;
+			for(int t = 0; t <= sink; t++)
+				inverse[a][t] = new int[count[t]];
+			for(int s = 0; s <= sink; s++)
+				inverse[a][delta[s][a]][--count[delta[s][a]]] = s;
+		}
+		
+		// Initial partition by final status, token and backtrack. The sink has its own block
+		int[] block = new int[sink + 1];
+		List<Set<Integer>> blocks = new ArrayList<>();
+		Map<String, Integer> blockKey = new HashMap<>();
+		for(int s = 0; s <= sink; s++){
+			String key = s == sink ? null : String.format("%b %b %s", states.get(s).isFinal(), states.get(s).getBacktrack(), states.get(s).getToken());
+			Integer b = key == null ? null : blockKey.get(key);
+			if(b == null){
+				b = blocks.size();
+				blocks.add(new TreeSet<Integer>());
+				if(key != null)
+					blockKey.put(key, b);
+			}
+			blocks.get(b).add(s);
+			block[s] = b;
+		}
+		
+		// All blocks are splitters at first
+		Deque<Integer> work = new ArrayDeque<>();
+		BitSet inWork = new BitSet();
+		for(int b = 0; b < blocks.size(); b++){
+			work.add(b);
+			inWork.set(b);
+		}
+		
+		// Refine the partition
+		while(!work.isEmpty()){
+			int splitter = work.poll();
+			inWork.clear(splitter);
+			Integer[] splitterStates = blocks.get(splitter).toArray(new Integer[0]);
+			
+			for(int a = 0; a < labels.length; a++){
+				
+				// States going into the splitter on this label, grouped by block
+				Map<Integer, Set<Integer>> touched = new LinkedHashMap<>();
+				for(int t : splitterStates){
+					for(int s : inverse[a][t]){
+						Set<Integer> moved = touched.get(block[s]);
+						if(moved == null){
+							moved = new TreeSet<>();
+							touched.put(block[s], moved);
+						}
+						moved.add(s);
+					}
+				}
+				
+				// Split blocks that are partly touched
+				for(Map.Entry<Integer, Set<Integer>> entry : touched.entrySet()){
+					int b = entry.getKey();
+					Set<Integer> moved = entry.getValue();
+					if(moved.size() == blocks.get(b).size())
+						continue;
+					
+					int newBlock = blocks.size();
+					blocks.get(b).removeAll(moved);
+					blocks.add(moved);
+					for(int s : moved)
+						block[s] = newBlock;
+					
+					// Keep both halves if the block was waiting, otherwise the smaller is enough
+					if(inWork.get(b) || moved.size() <= blocks.get(b).size()){
+						work.add(newBlock);
+						inWork.set(newBlock);
+					} else {
+						work.add(b);
+						inWork.set(b);
+					}
+				}
+			}
+		}
+		
+		// Add one state per block, in order of their first state, so the initial state comes first
+		FiniteAutomata minimized = new FiniteAutomata(vertexPrefix);
+		State[] blockState = new State[blocks.size()];
+		int[] representative = new int[blocks.size()];
+		for(int s = 0; s < sink; s++){
+			if(blockState[block[s]] == null){
+				State state = states.get(s);
+				State newState = minimized.addState(state.getStatus());
+				newState.setToken(state.getToken());
+				newState.setBacktrack(state.getBacktrack());
+				blockState[block[s]] = newState;
+				representative[block[s]] = s;
+			}
+		}
+		
+		// Copy the transitions of each representative
+		for(int b = 0; b < blocks.size(); b++){
+			if(blockState[b] == null)
+				continue;
+			
+			for(Transition transition : states.get(representative[b]).getTransition())
+				minimized.addTransition(blockState[b], blockState[block[stateIndex.get(transition.getToState())]], transition.getRead());
+		}
+		
+		return minimized;
+	}
+	
 	/////////////////////////// I/O HELPER ///////////////////////////////
 	
 	/**
@@ -467,7 +783,7 @@ public class FiniteAutomata {
 			
 			statesToken[index] = matcher.group(2);
 		}
-				
+		
 		// Initialize all states
 		for(int i=0; i<states.length; i++){
 			
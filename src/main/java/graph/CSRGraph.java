@@ -0,0 +1,490 @@
+package graph;
+
+/**
+* Graph stored in compressed sparse row arrays
+* Vertices are ids from 0 to size() - 1, in the order of the vertices of the source graph.
+* The out edges of vertex v are the edge ids from getOutEdgeStart(v) to getOutEdgeEnd(v) - 1,
+* in the order they were added. An undirected edge is stored in both directions, like in Graph.
+* The graph cannot change, so traversals keep their state in local arrays and can run concurrently.
+* */
+public class CSRGraph <E,T> {
+	
+	// Vertices
+	private Object[] data;
+	private int[] graphID;
+	
+	// Out edges grouped by source vertex
+	int[] outStart, edgeSource, edgeTarget;
+	private double[] edgeWeight;
+	private Object[] edgeLabel;
+	
+	// In edges grouped by target vertex
+	int[] inStart, inEdge;
+	
+	// Graph options
+	private boolean directed;
+	
+	// Status
+	private static final int UNVISITED = 0, VISITING = 1, VISITED = 2;
+	
+	/**
+	 * Constructor from a graph
+	 * @param graph
+	 */
+	public CSRGraph(Graph<E,T> graph) {
+		Vertex<E,T>[] vertices = graph.vertices_array();
+		Edge<E,T>[] edges = graph.edges_array();
+		
+		// Vertices
+		data = new Object[vertices.length];
+		graphID = new int[vertices.length];
+		for(int v = 0; v < vertices.length; v++) {
+			data[v] = vertices[v].getData();
+			graphID[v] = vertices[v].getID();
+		}
+		
+		// Edges, the graph already stores undirected edges in both directions
+		int[] from = new int[edges.length], to = new int[edges.length];
+		double[] weights = new double[edges.length];
+		Object[] labels = new Object[edges.length];
+		for(int e = 0; e < edges.length; e++) {
+			from[e] = graph.getIndexOfVertexByID(vertices, edges[e].getV1().getID());
+			to[e] = graph.getIndexOfVertexByID(vertices, edges[e].getV2().getID());
+			weights[e] = edges[e].getWeight();
+			labels[e] = edges[e].getLabel();
+		}
+		init(vertices.length, from, to, weights, labels, graph.isDirected());
+	}
+	
+	/**
+	 * Constructor from edge arrays
+	 * @param data data of each vertex
+	 * @param from source vertex of each edge
+	 * @param to target vertex of each edge
+	 * @param weights weight of each edge, or null for 0.0
+	 * @param labels label of each edge, or null
+	 * @param directed true if the graph is directed, false if undirected
+	 */
+	public CSRGraph(E[] data, int[] from, int[] to, double[] weights, T[] labels, boolean directed) {
+		this.data = data.clone();
+		this.graphID = new int[data.length];
+		for(int v = 0; v < data.length; v++)
+			graphID[v] = v;
+		
+		// Undirected edges are added in both directions, next to each other
+		int copies = directed ? 1 : 2;
+		int[] allFrom = new int[from.length * copies], allTo = new int[from.length * copies];
+		double[] allWeights = new double[from.length * copies];
+		Object[] allLabels = new Object[from.length * copies];
+		for(int e = 0; e < from.length; e++) {
+			if(from[e] < 0 || from[e] >= data.length || to[e] < 0 || to[e] >= data.length)
+				throw new IndexOutOfBoundsException(String.format("Edge %d: (%d, %d)", e, from[e], to[e]));
+			
+			for(int copy = 0; copy < copies; copy++) {
+				int index = e * copies + copy;
+				allFrom[index] = copy == 0 ? from[e] : to[e];
+				allTo[index] = copy == 0 ? to[e] : from[e];
+				allWeights[index] = weights == null ? 0.0 : weights[e];
+				allLabels[index] = labels == null ? null : labels[e];
+			}
+		}
+		init(data.length, allFrom, allTo, allWeights, allLabels, directed);
+	}
+	
+	/**
+	 * Group edges by source and by target, keeping the order they were added
+	 * @param size
+	 * @param from
+	 * @param to
+	 * @param weights
+	 * @param labels
+	 * @param directed
+	 */
+	private void init(int size, int[] from, int[] to, double[] weights, Object[] labels, boolean directed) {
+		this.directed = directed;
+		int edges = from.length;
+		
+		// Count out and in degrees
+		outStart = new int[size + 1];
+		inStart = new int[size + 1];
+		for(int e = 0; e < edges; e++) {
+			outStart[from[e] + 1]++;
+			inStart[to[e] + 1]++;
+		}
+		for(int v = 0; v < size; v++) {
+			outStart[v + 1] += outStart[v];
+			inStart[v + 1] += inStart[v];
+		}
+		
+		// Place edges
+		edgeSource = new int[edges];
+		edgeTarget = new int[edges];
+		edgeWeight = new double[edges];
+		edgeLabel = new Object[edges];
+		inEdge = new int[edges];
+		int[] outNext = outStart.clone(), inNext = inStart.clone();
+		for(int e = 0; e < edges; e++) {
+			int id = outNext[from[e]]++;
+			edgeSource[id] = from[e];
+			edgeTarget[id] = to[e];
+			edgeWeight[id] = weights[e];
+			edgeLabel[id] = labels[e];
+			inEdge[inNext[to[e]]++] = id;
+		}
+	}
+	
+	/**
+	 * Breadth-First-Search starting from a specific vertex
+	 * @param vertex
+	 * @return Array of vertices traversed by BFS
+	 */
+	public int[] BFS(int vertex) {
+		int[] queue = new int[size()];
+		boolean[] visited = new boolean[size()];
+		int length = BFS(vertex, queue, 0, visited, false);
+		int[] BFS = new int[length];
+		System.arraycopy(queue, 0, BFS, 0, length);
+		return BFS;
+	}
+	
+	/**
+	 * Breadth-First-Search
+	 * @return Array of vertices traversed by BFS
+	 */
+	public int[] BFS() {
+		int[] BFS = new int[size()];
+		boolean[] visited = new boolean[size()];
+		int length = 0;
+		for(int v = 0; v < size(); v++)
+			if(!visited[v])
+				length = BFS(v, BFS, length, visited, false);
+		return BFS;
+	}
+	
+	/**
+	 * Depth-First-Search starting from a specific vertex
+	 * @param vertex
+	 * @return Array of vertices traversed by DFS
+	 */
+	public int[] DFS(int vertex) {
+		int[] order = new int[size()];
+		int[] status = new int[size()];
+		int length = DFS(vertex, order, 0, status, new int[size()], new int[size()], null);
+		int[] DFS = new int[length];
+		System.arraycopy(order, 0, DFS, 0, length);
+		return DFS;
+	}
+	
+	/**
+	 * Depth-First-Search
+	 * @return Array of vertices traversed by DFS
+	 */
+	public int[] DFS() {
+		int[] DFS = new int[size()];
+		int[] status = new int[size()], stack = new int[size()], cursor = new int[size()];
+		int length = 0;
+		for(int v = 0; v < size(); v++)
+			if(status[v] == UNVISITED)
+				length = DFS(v, DFS, length, status, stack, cursor, null);
+		return DFS;
+	}
+	
+	/**
+	 * Checks if the graph contains a cycle
+	 * @return boolean
+	 */
+	public boolean isCyclic() {
+		int[] order = new int[size()];
+		int[] status = new int[size()], stack = new int[size()], cursor = new int[size()];
+		boolean[] isCyclic = {false};
+		int length = 0;
+		for(int v = 0; v < size() && !isCyclic[0]; v++)
+			if(status[v] == UNVISITED)
+				length = DFS(v, order, length, status, stack, cursor, isCyclic);
+		return isCyclic[0];
+	}
+	
+	/**
+	 * Checks if the graph is connected
+	 * @return boolean
+	 */
+	public boolean isConnected() {
+		return connectedComponents() <= 1;
+	}
+	
+	/**
+	 * Gives the number of connected components
+	 * Edges of a directed graph are followed in both directions
+	 * @return connected components
+	 */
+	public int connectedComponents() {
+		int[] queue = new int[size()];
+		boolean[] visited = new boolean[size()];
+		int components = 0;
+		for(int v = 0; v < size(); v++) {
+			if(!visited[v]) {
+				components++;
+				BFS(v, queue, 0, visited, directed);
+			}
+		}
+		return components;
+	}
+	
+	/**
+	 * Checks if two vertices are adjacent
+	 * @param v1 From
+	 * @param v2 To
+	 * @return boolean
+	 */
+	public boolean areAdjacent(int v1, int v2) {
+		
+		// If undirected, scan the vertex with less edges
+		if(!directed && getOutDegree(v2) < getOutDegree(v1)) {
+			int v = v1;
+			v1 = v2;
+			v2 = v;
+		}
+		for(int e = outStart[v1]; e < outStart[v1 + 1]; e++)
+			if(edgeTarget[e] == v2)
+				return true;
+		return false;
+	}
+	
+	/**
+	 * Build the reachability index of the graph
+	 * @return reachability
+	 */
+	public Reachability reachability() {
+		return new Reachability(this);
+	}
+	
+	/**
+	 * Find the shortest paths from a vertex by Dijkstra's algorithm
+	 * @param vertex starting vertex
+	 * @return shortest paths
+	 */
+	public ShortestPaths shortestPaths(int vertex) {
+		return new ShortestPaths(this, vertex);
+	}
+	
+	/**
+	 * Get number of vertices
+	 * @return size
+	 */
+	public int size() {
+		return data.length;
+	}
+	
+	/**
+	 * Get number of edges, undirected edges count twice
+	 * @return number of edges
+	 */
+	public int getNumOfEdges() {
+		return edgeTarget.length;
+	}
+	
+	/**
+	 * Checks if the graph is directed or not
+	 * @return boolean
+	 */
+	public boolean isDirected() {
+		return directed;
+	}
+	
+	/**
+	 * Get data stored in a vertex
+	 * @param vertex
+	 * @return data
+	 */
+	@SuppressWarnings("unchecked")
+	public E getData(int vertex) {
+		return (E) data[vertex];
+	}
+	
+	/**
+	 * Get the id of the vertex in the graph it was created from
+	 * @param vertex
+	 * @return id
+	 */
+	public int getGraphID(int vertex) {
+		return graphID[vertex];
+	}
+	
+	/**
+	 * Get first out edge of a vertex
+	 * @param vertex
+	 * @return edge id
+	 */
+	public int getOutEdgeStart(int vertex) {
+		return outStart[vertex];
+	}
+	
+	/**
+	 * Get the edge after the last out edge of a vertex
+	 * @param vertex
+	 * @return edge id
+	 */
+	public int getOutEdgeEnd(int vertex) {
+		return outStart[vertex + 1];
+	}
+	
+	/**
+	 * Get number of out edges
+	 * @param vertex
+	 * @return out degree
+	 */
+	public int getOutDegree(int vertex) {
+		return outStart[vertex + 1] - outStart[vertex];
+	}
+	
+	/**
+	 * Get number of in edges
+	 * @param vertex
+	 * @return in degree
+	 */
+	public int getInDegree(int vertex) {
+		return inStart[vertex + 1] - inStart[vertex];
+	}
+	
+	/**
+	 * Get in edges of a vertex
+	 * @param vertex
+	 * @return edge ids
+	 */
+	public int[] getInEdges(int vertex) {
+		int[] edges = new int[getInDegree(vertex)];
+		System.arraycopy(inEdge, inStart[vertex], edges, 0, edges.length);
+		return edges;
+	}
+	
+	/**
+	 * Get neighbors of a vertex
+	 * @param vertex
+	 * @return target of each out edge
+	 */
+	public int[] getNeighbors(int vertex) {
+		int[] neighbors = new int[getOutDegree(vertex)];
+		System.arraycopy(edgeTarget, outStart[vertex], neighbors, 0, neighbors.length);
+		return neighbors;
+	}
+	
+	/**
+	 * Get 'from' vertex of an edge
+	 * @param edge
+	 * @return vertex
+	 */
+	public int getEdgeSource(int edge) {
+		return edgeSource[edge];
+	}
+	
+	/**
+	 * Get 'to' vertex of an edge
+	 * @param edge
+	 * @return vertex
+	 */
+	public int getEdgeTarget(int edge) {
+		return edgeTarget[edge];
+	}
+	
+	/**
+	 * Get weight of an edge
+	 * @param edge
+	 * @return weight
+	 */
+	public double getEdgeWeight(int edge) {
+		return edgeWeight[edge];
+	}
+	
+	/**
+	 * Get label of an edge
+	 * @param edge
+	 * @return label
+	 */
+	@SuppressWarnings("unchecked")
+	public T getEdgeLabel(int edge) {
+		return (T) edgeLabel[edge];
+	}
+	
+	/////////////////////////////// HELPER ////////////////////////////////
+	
+	/**
+	 * BFS that appends to a queue
+	 * @param vertex starting vertex
+	 * @param queue
+	 * @param length number of vertices already in the queue
+	 * @param visited
+	 * @param inEdges also follow in edges
+	 * @return new length
+	 */
+	private int BFS(int vertex, int[] queue, int length, boolean[] visited, boolean inEdges) {
+		int head = length;
+		queue[length++] = vertex;
+		visited[vertex] = true;
+		while(head < length) {
+			int polled = queue[head++];
+			
+			// Out neighbors
+			for(int e = outStart[polled]; e < outStart[polled + 1]; e++) {
+				if(!visited[edgeTarget[e]]) {
+					visited[edgeTarget[e]] = true;
+					queue[length++] = edgeTarget[e];
+				}
+			}
+			
+			// In neighbors
+			if(inEdges) {
+				for(int i = inStart[polled]; i < inStart[polled + 1]; i++) {
+					int source = edgeSource[inEdge[i]];
+					if(!visited[source]) {
+						visited[source] = true;
+						queue[length++] = source;
+					}
+				}
+			}
+		}
+		return length;
+	}
+	
+	/**
+	 * DFS with an explicit stack, in the same order as the recursive DFS of Graph
+	 * @param vertex starting vertex
+	 * @param order where the visited vertices are appended
+	 * @param length number of vertices already in order
+	 * @param status
+	 * @param stack
+	 * @param cursor next out edge of each vertex in the stack
+	 * @param isCyclic set to true if a cycle is found, or null
+	 * @return new length
+	 */
+	private int DFS(int vertex, int[] order, int length, int[] status, int[] stack, int[] cursor, boolean[] isCyclic) {
+		int top = 0;
+		stack[top] = vertex;
+		cursor[top] = outStart[vertex];
+		status[vertex] = VISITING;
+		order[length++] = vertex;
+		
+		while(top >= 0) {
+			int v = stack[top];
+			
+			// If all neighbors are visited
+			if(cursor[top] == outStart[v + 1]) {
+				status[v] = VISITED;
+				top--;
+				continue;
+			}
+			
+			int w = edgeTarget[cursor[top]++];
+			if(status[w] == UNVISITED) {
+				status[w] = VISITING;
+				order[length++] = w;
+				stack[++top] = w;
+				cursor[top] = outStart[w];
+			
+			// Back edge in a directed graph, or edge to a finished vertex in an undirected graph
+			} else if(isCyclic != null && ((directed && status[w] == VISITING) || (!directed && status[w] == VISITED))) {
+				isCyclic[0] = true;
+			}
+		}
+		return length;
+	}
+}
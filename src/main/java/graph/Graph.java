@@ -673,6 +673,34 @@ public class Graph <E,T> {
 		return graph;
 	}
 
+	/**
+	 * Copy the graph into compressed sparse row arrays
+	 * Vertices are numbered in the order of vertices()
+	 * @return CSR graph
+	 */
+	public CSRGraph<E,T> toCSR(){
+		return new CSRGraph<E,T>(this);
+	}
+	
+	/**
+	 * Find the shortest paths from a vertex without changing the vertices
+	 * Vertices are numbered in the order of vertices()
+	 * @param v Starting vertex
+	 * @return shortest paths
+	 */
+	public ShortestPaths shortestPaths(Vertex<E,T> v){
+		return toCSR().shortestPaths(getIndexOfVertexByID(vertices_array(), v.getID()));
+	}
+	
+	/**
+	 * Build the reachability index of the graph
+	 * Vertices are numbered in the order of vertices()
+	 * @return reachability
+	 */
+	public Reachability reachability(){
+		return toCSR().reachability();
+	}
+	
 	/**
 	 * Gives all the vertices and edges that form this graph
 	 * @return String
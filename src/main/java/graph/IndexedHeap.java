@@ -0,0 +1,110 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+* Binary min heap of vertex ids from 0 to capacity - 1, keyed by a double
+* The position of each id in the heap is kept, so a key can be decreased in O(log n).
+* */
+class IndexedHeap {
+	
+	// Heap of ids and key of each id
+	private int[] heap;
+	private double[] key;
+	private int size;
+	
+	// Position of each id in the heap, -1 if not in the heap
+	private int[] position;
+	
+	/**
+	 * Create an empty heap
+	 * @param capacity
+	 */
+	IndexedHeap(int capacity) {
+		heap = new int[capacity];
+		key = new double[capacity];
+		position = new int[capacity];
+		Arrays.fill(position, -1);
+	}
+	
+	/**
+	 * Checks if the heap is empty
+	 * @return boolean
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+	
+	/**
+	 * Add an id, or decrease its key if already in the heap
+	 * @param id
+	 * @param newKey
+	 */
+	void offer(int id, double newKey) {
+		if(position[id] < 0) {
+			position[id] = size;
+			heap[size++] = id;
+		} else if(newKey >= key[id]) {
+			return;
+		}
+		key[id] = newKey;
+		siftUp(position[id]);
+	}
+	
+	/**
+	 * Remove the id with the minimum key
+	 * @return id
+	 */
+	int poll() {
+		int min = heap[0];
+		position[min] = -1;
+		if(--size > 0) {
+			heap[0] = heap[size];
+			position[heap[0]] = 0;
+			siftDown(0);
+		}
+		return min;
+	}
+	
+	/////////////////////////////// HELPER ////////////////////////////////
+	
+	/**
+	 * Move an entry up until its parent is not larger
+	 * @param index
+	 */
+	private void siftUp(int index) {
+		int id = heap[index];
+		while(index > 0) {
+			int parent = (index - 1) >>> 1;
+			if(key[heap[parent]] <= key[id])
+				break;
+			heap[index] = heap[parent];
+			position[heap[index]] = index;
+			index = parent;
+		}
+		heap[index] = id;
+		position[id] = index;
+	}
+	
+	/**
+	 * Move an entry down until its children are not smaller
+	 * @param index
+	 */
+	private void siftDown(int index) {
+		int id = heap[index];
+		while(true) {
+			int child = 2 * index + 1;
+			if(child >= size)
+				break;
+			if(child + 1 < size && key[heap[child + 1]] < key[heap[child]])
+				child++;
+			if(key[heap[child]] >= key[id])
+				break;
+			heap[index] = heap[child];
+			position[heap[index]] = index;
+			index = child;
+		}
+		heap[index] = id;
+		position[id] = index;
+	}
+}
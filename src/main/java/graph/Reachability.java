@@ -0,0 +1,179 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+* Reachability index of a graph
+* Strongly connected components are found with Tarjan's algorithm, then each component gets a
+* bitset of the vertices it reaches, built from the bitsets of the components it has edges to.
+* Every vertex reaches itself. The index cannot change and can be shared between threads.
+* Memory is one bit per component and vertex, so graphs with many components take components * vertices / 8 bytes.
+* */
+public class Reachability {
+	
+	// Component of each vertex
+	private int[] component;
+	private int numOfComponents;
+	
+	// Reached vertices of each component, words per component in a row
+	private long[] reached;
+	private int words;
+	
+	/**
+	 * Build the index
+	 * @param graph
+	 */
+	public Reachability(CSRGraph<?,?> graph) {
+		int size = graph.size();
+		words = (size + 63) >>> 6;
+		component = new int[size];
+		findComponents(graph);
+		
+		// Group vertices by component
+		int[] memberStart = new int[numOfComponents + 1];
+		for(int v = 0; v < size; v++)
+			memberStart[component[v] + 1]++;
+		for(int c = 0; c < numOfComponents; c++)
+			memberStart[c + 1] += memberStart[c];
+		int[] members = new int[size];
+		int[] memberNext = memberStart.clone();
+		for(int v = 0; v < size; v++)
+			members[memberNext[component[v]]++] = v;
+		
+		// Components are found after the components they reach
+		reached = new long[numOfComponents * words];
+		int[] lastSeen = new int[numOfComponents];
+		Arrays.fill(lastSeen, -1);
+		for(int c = 0; c < numOfComponents; c++) {
+			int row = c * words;
+			for(int i = memberStart[c]; i < memberStart[c + 1]; i++) {
+				int v = members[i];
+				reached[row + (v >>> 6)] |= 1L << v;
+				
+				// Add what the next components reach, once each
+				for(int e = graph.outStart[v]; e < graph.outStart[v + 1]; e++) {
+					int next = component[graph.edgeTarget[e]];
+					if(next != c && lastSeen[next] != c) {
+						lastSeen[next] = c;
+						int nextRow = next * words;
+						for(int w = 0; w < words; w++)
+							reached[row + w] |= reached[nextRow + w];
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Checks if there is a path from one vertex to another
+	 * @param from
+	 * @param to
+	 * @return boolean
+	 */
+	public boolean reaches(int from, int to) {
+		return (reached[component[from] * words + (to >>> 6)] & (1L << to)) != 0;
+	}
+	
+	/**
+	 * Get the vertices reached from a vertex
+	 * @param from
+	 * @return vertices in ascending order
+	 */
+	public int[] getReachable(int from) {
+		int row = component[from] * words;
+		int count = 0;
+		for(int w = 0; w < words; w++)
+			count += Long.bitCount(reached[row + w]);
+		
+		int[] vertices = new int[count];
+		int index = 0;
+		for(int w = 0; w < words; w++) {
+			long word = reached[row + w];
+			while(word != 0) {
+				vertices[index++] = (w << 6) + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return vertices;
+	}
+	
+	/**
+	 * Get the strongly connected component of a vertex
+	 * A component is numbered after all the components it reaches
+	 * @param vertex
+	 * @return component
+	 */
+	public int getComponent(int vertex) {
+		return component[vertex];
+	}
+	
+	/**
+	 * Get number of strongly connected components
+	 * @return number of components
+	 */
+	public int getNumOfComponents() {
+		return numOfComponents;
+	}
+	
+	/////////////////////////////// HELPER ////////////////////////////////
+	
+	/**
+	 * Tarjan's algorithm with an explicit stack
+	 * @param graph
+	 */
+	private void findComponents(CSRGraph<?,?> graph) {
+		int size = graph.size();
+		int[] index = new int[size], low = new int[size];
+		int[] stack = new int[size], callStack = new int[size], cursor = new int[size];
+		boolean[] onStack = new boolean[size];
+		int nextIndex = 1, top = 0;
+		
+		for(int root = 0; root < size; root++) {
+			if(index[root] != 0)
+				continue;
+			
+			// Visit root
+			int call = 0;
+			callStack[call] = root;
+			cursor[call] = graph.outStart[root];
+			index[root] = low[root] = nextIndex++;
+			stack[top++] = root;
+			onStack[root] = true;
+			
+			while(call >= 0) {
+				int v = callStack[call];
+				
+				// Next edge
+				if(cursor[call] < graph.outStart[v + 1]) {
+					int w = graph.edgeTarget[cursor[call]++];
+					if(index[w] == 0) {
+						index[w] = low[w] = nextIndex++;
+						stack[top++] = w;
+						onStack[w] = true;
+						callStack[++call] = w;
+						cursor[call] = graph.outStart[w];
+					} else if(onStack[w]) {
+						low[v] = Math.min(low[v], index[w]);
+					}
+					continue;
+				}
+				
+				// Root of a component
+				if(low[v] == index[v]) {
+					int w;
+					do {
+						w = stack[--top];
+						onStack[w] = false;
+						component[w] = numOfComponents;
+					} while(w != v);
+					numOfComponents++;
+				}
+				
+				// Return to the caller
+				call--;
+				if(call >= 0)
+					low[callStack[call]] = Math.min(low[callStack[call]], low[v]);
+			}
+		}
+	}
+}
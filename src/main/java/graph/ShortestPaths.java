@@ -0,0 +1,126 @@
+package graph;
+
+import java.util.Arrays;
+
+/**
+* Shortest paths from one vertex by Dijkstra's algorithm
+* Distances and parents are kept in arrays indexed by vertex id, and the frontier is an indexed heap,
+* so the graph is not modified. The result cannot change and can be shared between threads.
+* */
+public class ShortestPaths {
+	
+	// Starting vertex
+	private int source;
+	
+	// Distance of each vertex, Double.MAX_VALUE if not reachable
+	private double[] distance;
+	
+	// Edge that ends the shortest path to each vertex, -1 for the source and vertices not reachable
+	private int[] parentEdge;
+	private int[] parent;
+	
+	/**
+	 * Find the shortest paths from a vertex
+	 * @param graph
+	 * @param source starting vertex
+	 * @throws IllegalArgumentException if a reachable edge has a negative weight
+	 */
+	public ShortestPaths(CSRGraph<?,?> graph, int source) {
+		int size = graph.size();
+		this.source = source;
+		distance = new double[size];
+		parentEdge = new int[size];
+		parent = new int[size];
+		Arrays.fill(distance, Double.MAX_VALUE);
+		Arrays.fill(parentEdge, -1);
+		Arrays.fill(parent, -1);
+		boolean[] visited = new boolean[size];
+		
+		IndexedHeap heap = new IndexedHeap(size);
+		distance[source] = 0.0;
+		heap.offer(source, 0.0);
+		while(!heap.isEmpty()) {
+			
+			// Remove the vertex with minimum distance
+			int polled = heap.poll();
+			visited[polled] = true;
+			
+			// Relax its out edges
+			for(int e = graph.outStart[polled]; e < graph.outStart[polled + 1]; e++) {
+				double weight = graph.getEdgeWeight(e);
+				if(weight < 0)
+					throw new IllegalArgumentException(String.format("Edge %d has a negative weight: %f", e, weight));
+				
+				int target = graph.edgeTarget[e];
+				double pathCost = distance[polled] + weight;
+				if(!visited[target] && pathCost < distance[target]) {
+					distance[target] = pathCost;
+					parentEdge[target] = e;
+					parent[target] = polled;
+					heap.offer(target, pathCost);
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Get the starting vertex
+	 * @return source
+	 */
+	public int getSource() {
+		return source;
+	}
+	
+	/**
+	 * Checks if there is a path to a vertex
+	 * @param vertex
+	 * @return boolean
+	 */
+	public boolean hasPath(int vertex) {
+		return vertex == source || parentEdge[vertex] >= 0;
+	}
+	
+	/**
+	 * Get the distance to a vertex
+	 * @param vertex
+	 * @return distance, or Double.MAX_VALUE if not reachable
+	 */
+	public double getDistance(int vertex) {
+		return distance[vertex];
+	}
+	
+	/**
+	 * Get the vertex before a vertex on its shortest path
+	 * @param vertex
+	 * @return parent, or -1 for the source and vertices not reachable
+	 */
+	public int getParent(int vertex) {
+		return parent[vertex];
+	}
+	
+	/**
+	 * Get the edge that ends the shortest path to a vertex
+	 * @param vertex
+	 * @return edge, or -1 for the source and vertices not reachable
+	 */
+	public int getParentEdge(int vertex) {
+		return parentEdge[vertex];
+	}
+	
+	/**
+	 * Get the shortest path to a vertex
+	 * @param vertex
+	 * @return edges from the source to the vertex, empty if not reachable
+	 */
+	public int[] getPath(int vertex) {
+		int length = 0;
+		for(int v = vertex; parentEdge[v] >= 0; v = parent[v])
+			length++;
+		
+		// Fill the path backward
+		int[] path = new int[length];
+		for(int v = vertex; parentEdge[v] >= 0; v = parent[v])
+			path[--length] = parentEdge[v];
+		return path;
+	}
+}
@@ -0,0 +1,186 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import parser.grammar.ABGrammarToken;
+import scanner.ABToken;
+
+/**
+ * Parse tree stored in parallel int arrays
+ * Each node is an index with a symbol id of the compiled table, its first child, its next sibling and the index
+ * of the input token matched by a terminal. The children are in the order of the production. A tree of
+ * ABGrammarToken objects, as built by the parser, can be created from it for the GUI.
+ */
+public final class ABParseTree {
+	
+	// No node, and no token for a node that is not a matched terminal
+	public static final int NONE = -1;
+	
+	// Symbol of an epsilon node, epsilon has no id in the compiled table
+	public static final int EPSILON = -1;
+	
+	// Bytes per node, one int in each array
+	private static final int NODE_BYTES = 4 * 4;
+	
+	// Components
+	private final CompiledParseTable compiledTable;
+	private final List<ABToken> tokens;
+	
+	// Nodes
+	private int[] symbols, firstChild, nextSibling, tokenIndex;
+	private int size;
+	
+	/**
+	 * Create tree with its root
+	 * @param compiledTable
+	 * @param tokens input tokens, the terminals store their index
+	 * @param root start symbol id
+	 */
+	ABParseTree(CompiledParseTable compiledTable, List<ABToken> tokens, int root) {
+		this.compiledTable = compiledTable;
+		this.tokens = tokens;
+		this.symbols = new int[64];
+		this.firstChild = new int[64];
+		this.nextSibling = new int[64];
+		this.tokenIndex = new int[64];
+		addNode(root);
+	}
+	
+	/**
+	 * Add a child before the other children of a node
+	 * The parser adds the production from right to left, so the children end up in the production order.
+	 * @param parent
+	 * @param symbol symbol id or EPSILON
+	 * @return child node
+	 */
+	int addFirstChild(int parent, int symbol) {
+		int child = addNode(symbol);
+		nextSibling[child] = firstChild[parent];
+		firstChild[parent] = child;
+		return child;
+	}
+	
+	/**
+	 * Set the input token matched by a terminal
+	 * @param node
+	 * @param index input token index
+	 */
+	void setTokenIndex(int node, int index) {
+		tokenIndex[node] = index;
+	}
+	
+	/**
+	 * Get root
+	 * @return root node
+	 */
+	public int getRoot() {
+		return 0;
+	}
+	
+	/**
+	 * Get number of nodes
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Get symbol of a node
+	 * @param node
+	 * @return symbol id or EPSILON
+	 */
+	public int getSymbol(int node) {
+		return symbols[node];
+	}
+	
+	/**
+	 * Get first child of a node
+	 * @param node
+	 * @return child or NONE
+	 */
+	public int getFirstChild(int node) {
+		return firstChild[node];
+	}
+	
+	/**
+	 * Get next sibling of a node
+	 * @param node
+	 * @return sibling or NONE
+	 */
+	public int getNextSibling(int node) {
+		return nextSibling[node];
+	}
+	
+	/**
+	 * Get index of the input token matched by a terminal
+	 * @param node
+	 * @return index or NONE
+	 */
+	public int getTokenIndex(int node) {
+		return tokenIndex[node];
+	}
+	
+	/**
+	 * Get input token matched by a terminal
+	 * @param node
+	 * @return token or null
+	 */
+	public ABToken getToken(int node) {
+		return tokenIndex[node] == NONE ? null : tokens.get(tokenIndex[node]);
+	}
+	
+	/**
+	 * Get memory used by the nodes
+	 * @return bytes of the arrays, unused capacity included
+	 */
+	public long getSizeInBytes() {
+		return (long) symbols.length * NODE_BYTES;
+	}
+	
+	/**
+	 * Create the tree of grammar tokens
+	 * The children are added in the order of the parser, from the last to the first symbol of the production.
+	 * @return root token
+	 */
+	public ABGrammarToken toGrammarToken() {
+		ABGrammarToken[] view = new ABGrammarToken[size];
+		for(int node = 0; node < size; node++) {
+			view[node] = symbols[node] == EPSILON ? new ABGrammarToken(ABGrammarToken.EPSILON) : compiledTable.getSymbolToken(symbols[node]).makeCopy();
+			if(tokenIndex[node] != NONE)
+				view[node].setTerminalValue(tokens.get(tokenIndex[node]));
+		}
+		
+		// Children
+		List<ABGrammarToken> children = new ArrayList<>();
+		for(int node = 0; node < size; node++) {
+			children.clear();
+			for(int child = firstChild[node]; child != NONE; child = nextSibling[child])
+				children.add(view[child]);
+			for(int i = children.size() - 1; i >= 0; i--)
+				view[node].addChild(children.get(i));
+		}
+		return view[0];
+	}
+	
+	/**
+	 * Add a node without children
+	 * @param symbol
+	 * @return node
+	 */
+	private int addNode(int symbol) {
+		if(size == symbols.length) {
+			symbols = Arrays.copyOf(symbols, size * 2);
+			firstChild = Arrays.copyOf(firstChild, size * 2);
+			nextSibling = Arrays.copyOf(nextSibling, size * 2);
+			tokenIndex = Arrays.copyOf(tokenIndex, size * 2);
+		}
+		symbols[size] = symbol;
+		firstChild[size] = NONE;
+		nextSibling[size] = NONE;
+		tokenIndex[size] = NONE;
+		return size++;
+	}
+}
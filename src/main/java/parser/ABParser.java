@@ -13,8 +13,9 @@ import parser.grammar.ABGrammar;
 import parser.grammar.ABGrammarToken;
 import static parser.helper.ABParserMessageHelper.*;
 
-import scanner.ABScanner;
+import scanner.ABParserTokenSource;
 import scanner.ABToken;
+import scanner.TokenSource;
 import semantic.ABSemantic;
 import semantic.ABSymbolTable;
 
@@ -22,9 +23,13 @@ public class ABParser {
 	
 	// Logger
 	private Logger l = LogManager.getFormatterLogger(getClass());
+	
+	// Trace every parsing step, checked once so the disabled trace costs nothing per step
+	private final boolean trace = l.isTraceEnabled();
 		
 	// Variables
 	private ABParserTable abParseTable;
+	private CompiledParseTable compiledTable;
 	private ABGrammar abGrammar;
 
 	// Long scan process time
@@ -39,6 +44,40 @@ public class ABParser {
 	// Tree root
 	private ABGrammarToken treeRoot;
 	
+	// Parse tree in int arrays
+	private ABParseTree parseTree;
+	
+	// Stack of symbol ids and the parse tree node of each entry
+	private int[] symbolStack = new int[64];
+	private int[] nodeStack = new int[64];
+	private int top;
+	
+	// Grammar token of each parse tree node, not used in fast mode
+	private ABGrammarToken[] treeTokens;
+	
+	// Fast mode: the tree of grammar tokens is created from the parse tree when requested
+	private boolean treeLinked;
+	
+	// Input source and tokens pulled from it
+	private TokenSource source;
+	private List<ABToken> tokens;
+	
+	// Fast mode: only error and final snapshots are stored, the others are replayed from the decisions when requested
+	private boolean fastMode;
+	
+	// Decision of each non-terminal in phase 1: production id, ERROR_POP or ERROR_SCAN
+	private int[] decisions = new int[64];
+	private int numOfDecisions;
+	
+	// Actions run in phase 1 and their input token index, run again in phase 2
+	private ABGrammarToken[] actionLog = new ABGrammarToken[64];
+	private int[] actionIndex = new int[64];
+	private int numOfActions;
+	
+	// Snapshots of phase 1, replayed in fast mode
+	private int phaseOneSteps;
+	private boolean replayed;
+	
 	/**
 	 * Constructor
 	 * @param file
@@ -50,6 +89,7 @@ public class ABParser {
 		
 		// Create parse table
 		this.abParseTable = new ABParserTable(abGrammar);
+		this.compiledTable = abParseTable.getCompiledTable();
 
 		// Log
 		l.info("Parse table: %s", abParseTable);
@@ -61,28 +101,22 @@ public class ABParser {
 	 * @return true if parse was successful, otherwise false
 	 */
 	public boolean parse(List<ABToken> scannerTokens) {
+		return parse(new ABParserTokenSource(scannerTokens.iterator()));
+	}
+	
+	/**
+	 * Parse input pulled one token at a time
+	 * @param source tokens ending with $, comments already removed
+	 * @return true if parse was successful, otherwise false
+	 */
+	public boolean parse(TokenSource source) {
 		
 		// Update time
 		parserProcessTime = System.currentTimeMillis();
 		
-		// Add $ to end of tokens
-		ArrayList<ABToken> tokens = new ArrayList<>(scannerTokens.size()+1);
-		for(int i=0; i < scannerTokens.size(); i++) {
-
-			// If token should not be excluded, add it
-			if(!ABScanner.EXCLUDE_PARSER.contains(scannerTokens.get(i).getToken()))
-				tokens.add(scannerTokens.get(i));
-		}
-		
-		// If there are token to parse
-		if(scannerTokens.size() > 0){
-			ABToken token = scannerTokens.get(scannerTokens.size()-1);
-			tokens.add(new ABToken(ABGrammarToken.END_OF_STACK, ABGrammarToken.END_OF_STACK, token.getRow(), token.getCol() + token.getValue().length()));
-		
-		// If no token to parse
-		} else {
-			tokens.add(new ABToken(ABGrammarToken.END_OF_STACK, ABGrammarToken.END_OF_STACK, 0, 0));
-		}
+		// Tokens are pulled from the source when needed
+		this.source = source;
+		this.tokens = new ArrayList<>();
 
 		// Log
 		l.info("Start parsing input ...");
@@ -90,14 +124,16 @@ public class ABParser {
 		// Prepare derivation list
 		List<ABGrammarToken> derivation = new ArrayList<>();
 		
-		// Prepare stack
-		Stack<ABGrammarToken> stack = new Stack<>();
-
 		// Create semantic
 		this.semantic = new ABSemantic();
 		
 		// Reset the snapshot list
 		snapshots = new ArrayList<>();
+		numOfDecisions = 0;
+		numOfActions = 0;
+		top = 0;
+		replayed = !fastMode;
+		treeLinked = !fastMode;
 
 		// Error
 		boolean error = false;
@@ -109,177 +145,207 @@ public class ABParser {
 		int step = 0;
 
 		// $
-		stack.push(new ABGrammarToken(ABGrammarToken.END_OF_STACK));
+		push(compiledTable.getEndOfStack(), ABParseTree.NONE);
 		
 		// Create S
 		treeRoot = new ABGrammarToken(abGrammar.getStart());
+		treeRoot.setSymbol(compiledTable.getStartSymbol());
+		parseTree = new ABParseTree(compiledTable, tokens, treeRoot.getSymbol());
+		treeTokens = fastMode ? null : new ABGrammarToken[64];
+		if(!fastMode)
+			setTreeToken(parseTree.getRoot(), treeRoot);
 
 		// Add S to derivation
 		derivation.add(treeRoot);
 
 		// Get next token
-		ABToken inputToken = tokens.get(inputTokenIndex);
+		ABToken inputToken = tokenAt(inputTokenIndex);
 
 		// Set tokens
 		semantic.setInputTokens(tokens);
 
-		// Run multiple times
-		for(int phase = 1; phase <= 2; phase++) {
-
-			// Push S
-			stack.push(treeRoot);
-
-			if(phase == 1) {
-				// Take snapshot
-				snapshots.add(new ABParserSnapshot(++step, stackNoAction(stack), tokensStartAt(tokens, inputTokenIndex), "", StringUtils.join(derivation, " "), false));
-			}
-
-			// Reset input token index
-			inputTokenIndex = 0;
+		// Push S
+		push(treeRoot.getSymbol(), parseTree.getRoot());
 
-			// Reset input token
-			inputToken = tokens.get(inputTokenIndex);
+		// Take snapshot
+		if(!fastMode)
+			snapshots.add(new ABParserSnapshot(++step, stackNoAction(), inputTokenIndex, "", StringUtils.join(derivation, " "), false));
+		else
+			++step;
 
-			// While top is not $
-			while(!stack.peek().isEndOfStack()) {
+		// While top is not $
+		while(symbolStack[top - 1] != compiledTable.getEndOfStack()) {
 
-				// Store top
-				ABGrammarToken grammarToken = stack.peek();
+			// Store top
+			int symbol = symbolStack[top - 1];
 
-				// If action
-				if(grammarToken.isAction()) {
+			// If action
+			if(compiledTable.isAction(symbol)) {
 
-					// Read
-					ABGrammarToken token = stack.pop();
+				// Read
+				pop();
+				ABGrammarToken token = compiledTable.getSymbolToken(symbol);
 
-					// If no  errors
-					if(!error)
-						semantic.eval(token, inputTokenIndex, phase);
+				// If no  errors, run phase 1 and log the action for phase 2
+				if(!error) {
+					semantic.eval(token, inputTokenIndex, 1);
+					logAction(token, inputTokenIndex);
+				}
 
-					// If is terminal
-				} else if(grammarToken.isTerminal()) {
+				// If is terminal
+			} else if(compiledTable.isTerminal(symbol)) {
 
-					// If match
-					if(grammarToken.getValue().equals(inputToken.getToken())) {
+				// If match
+				if(symbol == compiledTable.getTerminal(inputToken.getKind())) {
 
-						if(phase == 1) {
-							// Take snapshot
-							snapshots.add(new ABParserSnapshot(++step, stackNoAction(stack), tokensStartAt(tokens, inputTokenIndex), "", "", false));
+					// Take snapshot
+					if(!fastMode)
+						snapshots.add(new ABParserSnapshot(++step, stackNoAction(), inputTokenIndex, "", "", false));
+					else
+						++step;
 
-							// Set terminal value
-							grammarToken.setTerminalValue(inputToken);
-						}
+					// Pop terminal from stack
+					int node = pop();
 
-						// Pop terminal from stack
-						stack.pop();
+					// Set terminal value
+					parseTree.setTokenIndex(node, inputTokenIndex);
+					if(!fastMode)
+						treeTokens[node].setTerminalValue(inputToken);
 
-						// Update inputToken
-						inputToken = tokens.get(++inputTokenIndex);
+					// Update inputToken
+					inputToken = tokenAt(++inputTokenIndex);
 
-						// If no match
-					} else {
-
-						if(phase == 1) {
-							// Prepare message
-							String errorMessage = inputToken.getToken().equals(ABGrammarToken.END_OF_STACK) ? "Unexpected end of file" : String.format(GENERIC_UNEXPECTED_TOKEN_3, inputToken.getValue(), inputToken.getRow(), inputToken.getCol());
+					// If no match
+				} else {
 
-							// Add snapshot
-							snapshots.add(new ABParserSnapshot(++step, stackNoAction(stack), tokensStartAt(tokens, inputTokenIndex), "", errorMessage, true));
+					// Prepare message
+					String errorMessage = inputToken.getToken().equals(ABGrammarToken.END_OF_STACK) ? "Unexpected end of file" : String.format(GENERIC_UNEXPECTED_TOKEN_3, inputToken.getValue(), inputToken.getRow(), inputToken.getCol());
 
-							// This part has to be avoided
-							l.error("This statement should never execute. Step log: %s", snapshots.get(snapshots.size() - 1));
-						}
+					// Add snapshot
+					snapshots.add(new ABParserSnapshot(++step, stackNoAction(), inputTokenIndex, "", errorMessage, true));
 
-						// Pop
-						stack.pop();
+					// This part has to be avoided
+					l.error("This statement should never execute. Step log: %s", snapshots.get(snapshots.size() - 1));
 
-						// Error found
-						error = true;
-					}
+					// Pop
+					pop();
 
-					// If is non terminal
-				} else {
+					// Error found
+					error = true;
+				}
 
-					// Get cell
-					ABParserTable.ABParserTableCell cell = abParseTable.getTableAt(grammarToken.getValue(), inputToken.getToken());
+				// If is non terminal
+			} else {
 
-					// If not an error
-					if(!cell.isError()) {
+				// Get action
+				int action = compiledTable.getAction(symbol, inputToken.getKind());
 
-						// Store production
-						List<ABGrammarToken> productionWithAction = cell.getCopyOfProductionWithAction();
+				// Log decision
+				if(fastMode)
+					logDecision(action);
 
-						if(phase == 1) {
-							List<ABGrammarToken> production = cell.getProduction();
+				// If not an error
+				if(action >= 0) {
 
-							// Adjust the derivation
-							derive(grammarToken, productionWithAction, derivation);
+					// Copy the production for the tree of grammar tokens
+					List<ABGrammarToken> productionWithAction = null;
+					if(!fastMode) {
+						ABParserTable.ABParserTableCell cell = compiledTable.getCell(symbol, inputToken.getKind());
+						productionWithAction = cell.getCopyOfProductionWithAction();
+						List<ABGrammarToken> production = cell.getProduction();
 
-							// Take snapshot
-							snapshots.add(new ABParserSnapshot(++step, stackNoAction(stack), tokensStartAt(tokens, inputTokenIndex), cell.getId() + ": " + grammarToken.getValue() + "->" + StringUtils.join(production, " "), "=> " + StringUtils.join(derivation, " "), false));
-						}
+						// Adjust the derivation
+						derive(treeTokens[nodeStack[top - 1]], productionWithAction, derivation);
 
-						// Pop
-						stack.pop();
+						// Take snapshot
+						snapshots.add(new ABParserSnapshot(++step, stackNoAction(), inputTokenIndex, cell.getId() + ": " + compiledTable.getSymbolName(symbol) + "->" + StringUtils.join(production, " "), "=> " + StringUtils.join(derivation, " "), false));
+					} else {
+						++step;
+					}
 
-						// Inverse RHS multiple push. Don't push EPSILON
-						for(int pTokenId = productionWithAction.size()-1; pTokenId >= 0; --pTokenId) {
-							if(!productionWithAction.get(pTokenId).isEpsilon())
-								stack.push(productionWithAction.get(pTokenId));
+					// Pop
+					int node = pop();
+
+					// Inverse RHS multiple push. Epsilon is not pushed, it only has a node in the tree
+					int epsilon = compiledTable.getEpsilonIndex(action);
+					if(epsilon == compiledTable.getProductionLength(action))
+						parseTree.addFirstChild(node, ABParseTree.EPSILON);
+					for(int pSymbolId = compiledTable.getProductionLength(action)-1; pSymbolId >= 0; --pSymbolId) {
+						int pSymbol = compiledTable.getProductionSymbol(action, pSymbolId);
+						push(pSymbol, parseTree.addFirstChild(node, pSymbol));
+						if(pSymbolId == epsilon)
+							parseTree.addFirstChild(node, ABParseTree.EPSILON);
+					}
 
-							if(phase == 1) {
-								// Add children
-								grammarToken.addChild(productionWithAction.get(pTokenId));
-							}
+					// Add children
+					if(!fastMode) {
+						int child = parseTree.getFirstChild(node);
+						for(ABGrammarToken token : productionWithAction) {
+							setTreeToken(child, token);
+							child = parseTree.getNextSibling(child);
 						}
+						for(int pTokenId = productionWithAction.size()-1; pTokenId >= 0; --pTokenId)
+							treeTokens[node].addChild(productionWithAction.get(pTokenId));
+					}
 
-						// If error
-					} else {
+					// If error
+				} else {
 
-						if(phase == 1) {
-							// Input value
-							String inputValue = inputToken.getValue();
+					// Get cell for the error message
+					ABParserTable.ABParserTableCell cell = compiledTable.getCell(symbol, inputToken.getKind());
 
-							// Adjust value if $
-							if (inputValue.equals(ABGrammarToken.END_OF_STACK))
-								inputValue = EOF;
+					// Input value
+					String inputValue = inputToken.getValue();
 
-							// Prepare message
-							String errorMessage = String.format(cell.getErrorMessage(), inputValue, inputToken.getRow(), inputToken.getCol());
+					// Adjust value if $
+					if (inputValue.equals(ABGrammarToken.END_OF_STACK))
+						inputValue = EOF;
 
-							// Add snapshot
-							snapshots.add(new ABParserSnapshot(++step, stackNoAction(stack), tokensStartAt(tokens, inputTokenIndex), "", errorMessage, true));
-						}
+					// Prepare message
+					String errorMessage = String.format(cell.getErrorMessage(), inputValue, inputToken.getRow(), inputToken.getCol());
 
-						// If pop
-						if(cell.getErrorDecision().equals(ABParserTable.ABParserTableCell.POP)) {
+					// Add snapshot
+					snapshots.add(new ABParserSnapshot(++step, stackNoAction(), inputTokenIndex, "", errorMessage, true));
 
-							// Pop the stack
-							stack.pop();
+					// If pop
+					if(cell.getErrorDecision().equals(ABParserTable.ABParserTableCell.POP)) {
 
-							// If scan
-						} else if(cell.getErrorDecision().equals(ABParserTable.ABParserTableCell.SCAN)) {
+						// Pop the stack
+						pop();
 
-							// Scan next input token
-							inputToken = tokens.get(++inputTokenIndex);
+						// If scan
+					} else if(cell.getErrorDecision().equals(ABParserTable.ABParserTableCell.SCAN)) {
 
-							// If undefined
-						} else {
-							l.error("Undefined behavior for the error cell: non-terminal: %s, terminal: %s", grammarToken.getValue(), inputToken.getToken());
-						}
+						// Scan next input token
+						inputToken = tokenAt(++inputTokenIndex);
 
-						// Mark error
-						error = true;
+						// If undefined
+					} else {
+						l.error("Undefined behavior for the error cell: non-terminal: %s, terminal: %s", compiledTable.getSymbolName(symbol), inputToken.getToken());
 					}
+
+					// Mark error
+					error = true;
 				}
 			}
 		}
 		
+		// Phase 2 walks the logged actions, the actions are not run after a syntax error
+		if(!error)
+			for(int i = 0; i < numOfActions; i++)
+				semantic.eval(actionLog[i], actionIndex[i], 2);
+		
+		// Log tree size
+		l.info("Parse tree: %d nodes, %d bytes", parseTree.size(), parseTree.getSizeInBytes());
+		
+		// Steps of phase 1
+		phaseOneSteps = step;
+		
 		// If input token has more unparsed input
 		if(!inputToken.getToken().equals(ABGrammarToken.END_OF_STACK)){
 			
 			// Add snapshot
-			snapshots.add(new ABParserSnapshot(++step, stackNoAction(stack), tokensStartAt(tokens, inputTokenIndex), "", String.format(GENERIC_UNEXPECTED_CODE_3, inputToken.getValue(), inputToken.getRow(), inputToken.getCol()), true));
+			snapshots.add(new ABParserSnapshot(++step, stackNoAction(), inputTokenIndex, "", String.format(GENERIC_UNEXPECTED_CODE_3, inputToken.getValue(), inputToken.getRow(), inputToken.getCol()), true));
 			
 			// Error found
 			error = true;
@@ -289,7 +355,7 @@ public class ABParser {
 		if(error){
 			
 			// Add snapshot
-			snapshots.add(new ABParserSnapshot(++step, stackNoAction(stack), tokensStartAt(tokens, inputTokenIndex), "", FAILURE, false));
+			snapshots.add(new ABParserSnapshot(++step, stackNoAction(), inputTokenIndex, "", FAILURE, false));
 			
 			// Update time
 			parserProcessTime = System.currentTimeMillis() - parserProcessTime;
@@ -298,7 +364,7 @@ public class ABParser {
 		}
 
 		// Take snapshot
-		snapshots.add(new ABParserSnapshot(++step, stackNoAction(stack), tokensStartAt(tokens, inputTokenIndex), "", SUCCESS, false));
+		snapshots.add(new ABParserSnapshot(++step, stackNoAction(), inputTokenIndex, "", SUCCESS, false));
 
 		// Update time
 		parserProcessTime = System.currentTimeMillis() - parserProcessTime;
@@ -323,12 +389,33 @@ public class ABParser {
 
 	/**
 	 * Get tree root
+	 * In fast mode the tree is created from the parse tree the first time it is requested
 	 * @return
      */
 	public ABGrammarToken getTreeRoot() {
+		if(!treeLinked) {
+			treeRoot = parseTree.toGrammarToken();
+			treeLinked = true;
+		}
 		return treeRoot;
 	}
 
+	/**
+	 * Get parse tree stored in int arrays
+	 * @return parse tree
+	 */
+	public ABParseTree getParseTree() {
+		return parseTree;
+	}
+
+	/**
+	 * Get the parse table indexed by ints
+	 * @return compiled table
+	 */
+	public CompiledParseTable getCompiledTable() {
+		return compiledTable;
+	}
+	
 	/**
 	 * Get parser process time
 	 * @return process time
@@ -337,29 +424,57 @@ public class ABParser {
 		return this.parserProcessTime;
 	}
 	
+	/**
+	 * Get input token, pull it from the source if not read yet
+	 * @param index
+	 * @return token
+	 */
+	private ABToken tokenAt(int index) {
+		ABToken token;
+		while(tokens.size() <= index && (token = source.nextToken()) != null)
+			tokens.add(token);
+		return tokens.get(index);
+	}
+	
+	/**
+	 * Read the rest of a source
+	 * The parser stops reading at its last token, the rest is only read for the input of the snapshots
+	 * @param source
+	 * @param tokens tokens read from the source so far
+	 */
+	private void readAll(TokenSource source, List<ABToken> tokens) {
+		ABToken token;
+		while((token = source.nextToken()) != null)
+			tokens.add(token);
+	}
+	
 	/**
 	 * Get tokens from specific index
 	 * @param tokens
 	 * @param index
 	 * @return tokens substring
 	 */
-	private String tokensStartAt(ArrayList<ABToken> tokens, int index) {
-		String result = "";
+	private String tokensStartAt(List<ABToken> tokens, int index) {
+		StringBuilder result = new StringBuilder();
 		for(int i = index; i < tokens.size(); i++)
-			result += tokens.get(i).getToken() + " ";
-		return result;
+			result.append(tokens.get(i).getToken()).append(' ');
+		return result.toString();
 	}
 	
 	/**
 	 * Get non error snapshot
+	 * In fast mode the snapshots are replayed the first time they are requested
 	 * @return snapshots
 	 */
 	public List<ABParserSnapshot> getAllSnapshots() {
+		if(!replayed)
+			replaySnapshots();
 		return this.snapshots;
 	}
 	
 	/**
 	 * Get error snapshot
+	 * The first error of consecutive error steps is kept, in fast mode without replaying the snapshots
 	 * @return snapshots
 	 */
 	public List<ABParserSnapshot> getFilteredErrorSnapshots() {
@@ -367,25 +482,165 @@ public class ABParser {
 		// Prepare list
 		List<ABParserSnapshot> filterError = new ArrayList<>();
 		
-		// Loop on snapshots
-		for(int i=0; i < snapshots.size(); i++) {
+		// Loop on snapshots, the steps are in order
+		ABParserSnapshot previous = null;
+		for(ABParserSnapshot snapshot : snapshots) {
+			
+			// If error and the previous step is not an error
+			if(snapshot.isError() && (previous == null || !previous.isError() || previous.getId() != snapshot.getId() - 1))
+				filterError.add(snapshot);
+			previous = snapshot;
+		}
+		return filterError;
+	}
+	
+	/**
+	 * Parse without storing a snapshot for every step
+	 * Error and final snapshots are stored, the others are replayed from the productions chosen in phase 1
+	 * when {@link #getAllSnapshots()} is called. Parsing is then linear in the input size.
+	 * @param fastMode
+	 */
+	public void setFastMode(boolean fastMode) {
+		this.fastMode = fastMode;
+	}
+	
+	/**
+	 * Check if snapshots are replayed when requested
+	 * @return true if fast mode
+	 */
+	public boolean isFastMode() {
+		return fastMode;
+	}
+	
+	/**
+	 * Log the decision of a non-terminal in phase 1
+	 * @param decision production id, ERROR_POP or ERROR_SCAN
+	 */
+	private void logDecision(int decision) {
+		if(numOfDecisions == decisions.length)
+			decisions = Arrays.copyOf(decisions, numOfDecisions * 2);
+		decisions[numOfDecisions++] = decision;
+	}
+	
+	/**
+	 * Log an action run in phase 1
+	 * @param token action
+	 * @param inputTokenIndex
+	 */
+	private void logAction(ABGrammarToken token, int inputTokenIndex) {
+		if(numOfActions == actionLog.length) {
+			actionLog = Arrays.copyOf(actionLog, numOfActions * 2);
+			actionIndex = Arrays.copyOf(actionIndex, numOfActions * 2);
+		}
+		actionLog[numOfActions] = token;
+		actionIndex[numOfActions++] = inputTokenIndex;
+	}
+	
+	/**
+	 * Push a symbol and its parse tree node
+	 * @param symbol
+	 * @param node
+	 */
+	private void push(int symbol, int node) {
+		if(top == symbolStack.length) {
+			symbolStack = Arrays.copyOf(symbolStack, top * 2);
+			nodeStack = Arrays.copyOf(nodeStack, top * 2);
+		}
+		symbolStack[top] = symbol;
+		nodeStack[top++] = node;
+	}
+	
+	/**
+	 * Pop a symbol
+	 * @return parse tree node of the symbol
+	 */
+	private int pop() {
+		return nodeStack[--top];
+	}
+	
+	/**
+	 * Set grammar token of a parse tree node
+	 * @param node
+	 * @param token
+	 */
+	private void setTreeToken(int node, ABGrammarToken token) {
+		if(node >= treeTokens.length)
+			treeTokens = Arrays.copyOf(treeTokens, Math.max(node + 1, treeTokens.length * 2));
+		treeTokens[node] = token;
+	}
+	
+	/**
+	 * Create the phase 1 snapshots from the logged decisions
+	 * The stored error and final snapshots are kept at their step
+	 */
+	private void replaySnapshots() {
+		
+		// Stored snapshots
+		List<ABParserSnapshot> stored = snapshots;
+		int nextStored = 0;
+		
+		// Replay state
+		List<ABParserSnapshot> replay = new ArrayList<>();
+		List<ABGrammarToken> derivation = new ArrayList<>();
+		Stack<ABGrammarToken> stack = new Stack<>();
+		int step = 0, inputTokenIndex = 0, decision = 0;
+		
+		// $ and S
+		stack.push(new ABGrammarToken(ABGrammarToken.END_OF_STACK));
+		ABGrammarToken root = treeRoot.makeCopy();
+		derivation.add(root);
+		stack.push(root);
+		replay.add(new ABParserSnapshot(++step, stackNoAction(stack), inputTokenIndex, "", StringUtils.join(derivation, " "), false));
+		
+		// While top is not $
+		while(!stack.peek().isEndOfStack() && step < phaseOneSteps) {
+			ABGrammarToken grammarToken = stack.peek();
+			
+			// If action
+			if(grammarToken.isAction()) {
+				stack.pop();
 			
-			// If error
-			if(snapshots.get(i).isError()) {
+			// If terminal
+			} else if(grammarToken.isTerminal()) {
 				
-				// Cache
-				ABParserSnapshot snapshot = snapshots.get(i);
+				// If match, otherwise the error snapshot is stored
+				if(grammarToken.getKind() == tokens.get(inputTokenIndex).getKind())
+					replay.add(new ABParserSnapshot(++step, stackNoAction(stack), inputTokenIndex++, "", "", false));
+				else
+					replay.add(stored.get(nextStored++));
+				stack.pop();
+			
+			// If non terminal
+			} else {
+				int action = decisions[decision++];
 				
-				// Add to list
-				filterError.add(snapshot);
+				// If production
+				if(action >= 0) {
+					ABParserTableCell cell = compiledTable.getProductionCell(action);
+					List<ABGrammarToken> productionWithAction = cell.getCopyOfProductionWithAction();
+					derive(grammarToken, productionWithAction, derivation);
+					replay.add(new ABParserSnapshot(++step, stackNoAction(stack), inputTokenIndex, cell.getId() + ": " + grammarToken.getValue() + "->" + StringUtils.join(cell.getProduction(), " "), "=> " + StringUtils.join(derivation, " "), false));
+					stack.pop();
+					for(int pTokenId = productionWithAction.size()-1; pTokenId >= 0; --pTokenId)
+						if(!productionWithAction.get(pTokenId).isEpsilon())
+							stack.push(productionWithAction.get(pTokenId));
 				
-				// Skip the other consecutive errors
-				while (snapshot.isError() && ++i < snapshots.size()) {
-					snapshot = snapshots.get(i);
+				// If error, the snapshot is stored
+				} else {
+					replay.add(stored.get(nextStored++));
+					if(action == CompiledParseTable.ERROR_POP)
+						stack.pop();
+					else
+						inputTokenIndex++;
 				}
 			}
+			step = replay.get(replay.size() - 1).getId();
 		}
-		return filterError;
+		
+		// Final snapshots
+		replay.addAll(stored.subList(nextStored, stored.size()));
+		snapshots = replay;
+		replayed = true;
 	}
 	
 	/**
@@ -542,6 +797,18 @@ public class ABParser {
 		return semantic.getAllTables();
 	}
 
+	/**
+	 * Get string representatin of the symbol stack without action tokens
+	 * @return
+	 */
+	private String stackNoAction() {
+		StringBuilder value = new StringBuilder();
+		for(int i = 0; i < top; i++)
+			if(!compiledTable.isAction(symbolStack[i]))
+				value.append(compiledTable.getSymbolToken(symbolStack[i])).append(' ');
+		return value.toString().trim();
+	}
+
 	/**
 	 * Get string representatin of stack without action tokens
 	 * @param stack
@@ -570,7 +837,9 @@ public class ABParser {
 		
 		// Variables
 		private String stack, input, production, derivation;
-		private int id;
+		private int id, inputIndex;
+		private List<ABToken> inputTokens;
+		private TokenSource inputSource;
 		private boolean isError;
 
 		/**
@@ -588,8 +857,32 @@ public class ABParser {
 			this.derivation = derivation;
 			this.isError = isError;
 			
-			// Log
-			l.info("%d || %s || %s || %s || %s", id, stack, input, production, derivation);
+			// Trace
+			if(trace)
+				l.trace("%d || %s || %s || %s || %s", id, stack, input, production, derivation);
+		}
+		
+		/**
+		 * Constructor
+		 * The input is created from the parser tokens when requested, the tokens not read by the parser are read then
+		 * @param stack
+		 * @param inputIndex
+		 * @param production
+		 * @param derivation
+		 */
+		public ABParserSnapshot(int id, String stack, int inputIndex, String production,String derivation, boolean isError) {
+			this.id = id;
+			this.stack = stack;
+			this.inputTokens = tokens;
+			this.inputSource = source;
+			this.inputIndex = inputIndex;
+			this.production = production;
+			this.derivation = derivation;
+			this.isError = isError;
+			
+			// Trace
+			if(trace)
+				l.trace("%d || %s || %s ... || %s || %s", id, stack, inputTokens.get(inputIndex).getToken(), production, derivation);
 		}
 		
 		/**
@@ -610,9 +903,20 @@ public class ABParser {
 		 * @return input
 		 */
 		public String getInput() {
+			if(input == null) {
+				readAll(inputSource, inputTokens);
+				input = tokensStartAt(inputTokens, inputIndex);
+			}
 			return input;
 		}
 		
+		/**
+		 * @return index of the input token, 0 if the input was given as a string
+		 */
+		public int getInputIndex() {
+			return inputIndex;
+		}
+		
 		/**
 		 * Check if is error
 		 * @return true if error snapshot
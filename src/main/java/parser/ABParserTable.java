@@ -24,6 +24,9 @@ public class ABParserTable {
 	private LinkedHashMap<String, ABParserTableError> eMap;
 	private ABGrammar abGrammar;
 	
+	// Table indexed by ints, used when parsing
+	private CompiledParseTable compiledTable;
+	
 	/**
 	 * Create table
 	 * @param header
@@ -54,6 +57,9 @@ public class ABParserTable {
 		
 		// Apply id
 		applyREId();
+		
+		// Compile
+		compiledTable = new CompiledParseTable(abGrammar, this);
 	}
 	
 	/**
@@ -236,6 +242,14 @@ public class ABParserTable {
 		return nonTerminalIndexMap.get(nonTerminal);
 	}
 	
+	/**
+	 * Get the table indexed by ints
+	 * @return compiled table
+	 */
+	public CompiledParseTable getCompiledTable() {
+		return compiledTable;
+	}
+	
 	/**
 	 * Get table
 	 * @return table
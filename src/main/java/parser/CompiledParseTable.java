@@ -0,0 +1,363 @@
+package parser;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import parser.ABParserTable.ABParserTableCell;
+import parser.grammar.ABGrammar;
+import parser.grammar.ABGrammarToken;
+import scanner.helper.ABTokenKind;
+
+/**
+ * Read-only parse table indexed by ints
+ * Grammar symbols get dense ids: terminals first, in the columns order of the table, then non-terminals, then actions.
+ * Token kinds are mapped to their terminal once, so finding the action of a non-terminal on an input token is two
+ * array reads instead of two String lookups. Productions are stored as symbol ids in one flat array.
+ */
+public final class CompiledParseTable {
+	
+	// Symbol names, terminals first then non-terminals then actions
+	private final String[] symbols;
+	private final int numOfTerminals, numOfNonTerminals;
+	
+	// Grammar token of each symbol, shared
+	private final ABGrammarToken[] symbolTokens;
+	
+	// Start symbol and end of stack terminal
+	private final int startSymbol, endOfStack;
+	
+	// Terminal of each token kind id, -1 if the kind is not a terminal
+	private final int[] terminalOfKind;
+	
+	// Action of each non-terminal and terminal, one row per non-terminal: production id, ERROR_POP or ERROR_SCAN
+	private final int[] actions;
+	
+	// Table cells in the same layout, for ids, error messages and tree tokens
+	private final ABParserTableCell[] cells;
+	
+	// Productions: left hand side, and symbols from productionStart[p] to productionStart[p + 1], actions included, epsilon removed
+	private final int[] productionLhs, productionStart, productionSymbols;
+	
+	// Epsilon of each production: number of symbols before it, -1 if the production has no epsilon
+	private final int[] productionEpsilon;
+	
+	// Production ids, e.g. r1, and a cell of each production
+	private final String[] productionIds;
+	private final ABParserTableCell[] productionCells;
+	
+	// Error actions
+	public static final int ERROR_POP = -1;
+	public static final int ERROR_SCAN = -2;
+	
+	/**
+	 * Compile a parse table
+	 * The ids are also stored in the grammar tokens, see {@link ABGrammarToken#getSymbol()}
+	 * @param abGrammar
+	 * @param abParseTable
+	 */
+	CompiledParseTable(ABGrammar abGrammar, ABParserTable abParseTable) {
+		ABParserTableCell[][] table = abParseTable.getTable();
+		numOfNonTerminals = table.length;
+		numOfTerminals = numOfNonTerminals > 0 ? table[0].length : 0;
+		
+		// Terminals and non-terminals
+		List<String> names = new ArrayList<>();
+		for(int i = 0; i < numOfTerminals + numOfNonTerminals; i++)
+			names.add(null);
+		for(String terminal : abGrammar.getTerminals())
+			names.set(abParseTable.getIndexOfTerminal(terminal), terminal);
+		int[] kinds = new int[numOfTerminals];
+		for(int symbol = 0; symbol < numOfTerminals; symbol++)
+			kinds[symbol] = ABTokenKind.id(names.get(symbol));
+		int[] terminalOfKind = new int[ABTokenKind.size()];
+		Arrays.fill(terminalOfKind, -1);
+		for(int symbol = 0; symbol < numOfTerminals; symbol++)
+			terminalOfKind[kinds[symbol]] = symbol;
+		for(String nonTerminal : abGrammar.getNonTerminals())
+			names.set(numOfTerminals + abParseTable.getIndexOfNonTerminal(nonTerminal), nonTerminal);
+		
+		// Actions and productions, numbered in the order of the rule ids
+		Map<String, Integer> actionSymbols = new HashMap<>();
+		Map<List<ABGrammarToken>, Integer> productionOf = new IdentityHashMap<>();
+		List<ABGrammarToken> productionTokens = new ArrayList<>();
+		List<Integer> lhs = new ArrayList<>(), starts = new ArrayList<>(), epsilons = new ArrayList<>();
+		List<String> ids = new ArrayList<>();
+		List<ABParserTableCell> firstCells = new ArrayList<>();
+		this.actions = new int[numOfNonTerminals * numOfTerminals];
+		this.cells = new ABParserTableCell[actions.length];
+		for(int row = 0; row < numOfNonTerminals; row++) {
+			for(int col = 0; col < numOfTerminals; col++) {
+				ABParserTableCell cell = table[row][col];
+				int index = row * numOfTerminals + col;
+				cells[index] = cell;
+				
+				// If error
+				if(cell.isError()) {
+					actions[index] = cell.getErrorDecision().equals(ABParserTableCell.POP) ? ERROR_POP : ERROR_SCAN;
+					continue;
+				}
+				
+				// If new production
+				Integer production = productionOf.get(cell.getProductionWithAction());
+				if(production == null) {
+					production = lhs.size();
+					productionOf.put(cell.getProductionWithAction(), production);
+					lhs.add(numOfTerminals + row);
+					starts.add(productionTokens.size());
+					ids.add(cell.getId());
+					firstCells.add(cell);
+					epsilons.add(-1);
+					for(ABGrammarToken token : cell.getProductionWithAction()) {
+						if(token.isEpsilon()) {
+							epsilons.set(production, productionTokens.size() - starts.get(production));
+							continue;
+						}
+						
+						// Action ids are assigned when first seen
+						if(token.isAction() && !actionSymbols.containsKey(token.getValue())) {
+							actionSymbols.put(token.getValue(), names.size());
+							names.add(token.getValue());
+						}
+						productionTokens.add(token);
+					}
+				}
+				actions[index] = production;
+			}
+		}
+		starts.add(productionTokens.size());
+		
+		// Store ids in the grammar tokens
+		for(List<List<ABGrammarToken>> productions : abGrammar.getRules().values()) {
+			for(List<ABGrammarToken> production : productions) {
+				for(ABGrammarToken token : production) {
+					if(token.isTerminal())
+						token.setSymbol(terminalOfKind[token.getKind()]);
+					else if(token.isNonTerminal())
+						token.setSymbol(numOfTerminals + abParseTable.getIndexOfNonTerminal(token.getValue()));
+					else if(token.isAction())
+						token.setSymbol(actionSymbols.get(token.getValue()));
+				}
+			}
+		}
+		
+		// Flatten
+		this.symbols = names.toArray(new String[names.size()]);
+		this.terminalOfKind = terminalOfKind;
+		this.startSymbol = numOfTerminals + abParseTable.getIndexOfNonTerminal(abGrammar.getStart());
+		this.endOfStack = abParseTable.getIndexOfTerminal(ABGrammarToken.END_OF_STACK);
+		this.productionLhs = toArray(lhs);
+		this.productionStart = toArray(starts);
+		this.productionEpsilon = toArray(epsilons);
+		this.productionSymbols = new int[productionTokens.size()];
+		for(int i = 0; i < productionSymbols.length; i++)
+			productionSymbols[i] = productionTokens.get(i).getSymbol();
+		this.productionIds = ids.toArray(new String[ids.size()]);
+		this.productionCells = firstCells.toArray(new ABParserTableCell[firstCells.size()]);
+		
+		// Grammar tokens
+		this.symbolTokens = new ABGrammarToken[symbols.length];
+		for(int symbol = 0; symbol < symbols.length; symbol++) {
+			if(symbol == endOfStack)
+				symbolTokens[symbol] = new ABGrammarToken(ABGrammarToken.END_OF_STACK);
+			else if(isTerminal(symbol))
+				symbolTokens[symbol] = new ABGrammarToken("'" + symbols[symbol] + "'");
+			else if(isAction(symbol))
+				symbolTokens[symbol] = new ABGrammarToken("#" + symbols[symbol] + "#");
+			else
+				symbolTokens[symbol] = new ABGrammarToken(symbols[symbol]);
+			symbolTokens[symbol].setSymbol(symbol);
+		}
+	}
+	
+	/**
+	 * Get the action of a non-terminal on an input token
+	 * @param nonTerminal symbol id
+	 * @param kind token kind id
+	 * @return production id, ERROR_POP or ERROR_SCAN
+	 */
+	public int getAction(int nonTerminal, int kind) {
+		return actions[index(nonTerminal, kind)];
+	}
+	
+	/**
+	 * Get the table cell of a non-terminal on an input token
+	 * @param nonTerminal symbol id
+	 * @param kind token kind id
+	 * @return cell
+	 */
+	public ABParserTableCell getCell(int nonTerminal, int kind) {
+		return cells[index(nonTerminal, kind)];
+	}
+	
+	/**
+	 * Get the terminal of a token kind
+	 * @param kind token kind id
+	 * @return terminal symbol id or -1 if the kind is not a terminal of the grammar
+	 */
+	public int getTerminal(int kind) {
+		return kind < terminalOfKind.length ? terminalOfKind[kind] : -1;
+	}
+	
+	/**
+	 * Get number of symbols
+	 * @return number of terminals, non-terminals and actions
+	 */
+	public int getNumOfSymbols() {
+		return symbols.length;
+	}
+	
+	/**
+	 * Get name of a symbol
+	 * @param symbol
+	 * @return terminal, non-terminal or action name
+	 */
+	public String getSymbolName(int symbol) {
+		return symbols[symbol];
+	}
+	
+	/**
+	 * Get grammar token of a symbol
+	 * The token is shared, copy it to add children or a terminal value
+	 * @param symbol
+	 * @return token
+	 */
+	public ABGrammarToken getSymbolToken(int symbol) {
+		return symbolTokens[symbol];
+	}
+	
+	/**
+	 * Check if a symbol is a terminal, the end of stack included
+	 * @param symbol
+	 * @return true if terminal
+	 */
+	public boolean isTerminal(int symbol) {
+		return symbol < numOfTerminals;
+	}
+	
+	/**
+	 * Check if a symbol is a non-terminal
+	 * @param symbol
+	 * @return true if non-terminal
+	 */
+	public boolean isNonTerminal(int symbol) {
+		return symbol >= numOfTerminals && symbol < numOfTerminals + numOfNonTerminals;
+	}
+	
+	/**
+	 * Check if a symbol is an action
+	 * @param symbol
+	 * @return true if action
+	 */
+	public boolean isAction(int symbol) {
+		return symbol >= numOfTerminals + numOfNonTerminals;
+	}
+	
+	/**
+	 * Get start symbol
+	 * @return non-terminal symbol id
+	 */
+	public int getStartSymbol() {
+		return startSymbol;
+	}
+	
+	/**
+	 * Get end of stack symbol
+	 * @return terminal symbol id
+	 */
+	public int getEndOfStack() {
+		return endOfStack;
+	}
+	
+	/**
+	 * Get number of productions
+	 * @return number of productions
+	 */
+	public int getNumOfProductions() {
+		return productionLhs.length;
+	}
+	
+	/**
+	 * Get left hand side of a production
+	 * @param production
+	 * @return non-terminal symbol id
+	 */
+	public int getLhs(int production) {
+		return productionLhs[production];
+	}
+	
+	/**
+	 * Get number of symbols of a production, epsilon removed
+	 * @param production
+	 * @return length
+	 */
+	public int getProductionLength(int production) {
+		return productionStart[production + 1] - productionStart[production];
+	}
+	
+	/**
+	 * Get a symbol of a production
+	 * @param production
+	 * @param index
+	 * @return symbol id
+	 */
+	public int getProductionSymbol(int production, int index) {
+		return productionSymbols[productionStart[production] + index];
+	}
+	
+	/**
+	 * Get position of the epsilon of a production
+	 * Epsilon is not a symbol of the production, the parse tree still has a node for it.
+	 * @param production
+	 * @return number of symbols before epsilon, -1 if the production has no epsilon
+	 */
+	public int getEpsilonIndex(int production) {
+		return productionEpsilon[production];
+	}
+	
+	/**
+	 * Get production rule id
+	 * @param production
+	 * @return id, e.g. r1
+	 */
+	public String getProductionId(int production) {
+		return productionIds[production];
+	}
+	
+	/**
+	 * Get a cell of a production, for its tokens and id
+	 * @param production
+	 * @return cell
+	 */
+	public ABParserTableCell getProductionCell(int production) {
+		return productionCells[production];
+	}
+	
+	/**
+	 * Get index of a cell
+	 * @param nonTerminal symbol id
+	 * @param kind token kind id
+	 * @return index in the actions and cells
+	 */
+	private int index(int nonTerminal, int kind) {
+		int terminal = getTerminal(kind);
+		if(terminal < 0)
+			throw new IllegalArgumentException(String.format("Terminal '%s' not found in table", ABTokenKind.name(kind)));
+		return (nonTerminal - numOfTerminals) * numOfTerminals + terminal;
+	}
+	
+	/**
+	 * Copy a list of integers
+	 * @param list
+	 * @return array
+	 */
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for(int i = 0; i < array.length; i++)
+			array[i] = list.get(i);
+		return array;
+	}
+}
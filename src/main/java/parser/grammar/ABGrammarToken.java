@@ -1,6 +1,7 @@
 package parser.grammar;
 
 import scanner.ABToken;
+import scanner.helper.ABTokenKind;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -28,6 +29,12 @@ public class ABGrammarToken {
 	private List<ABGrammarToken> children;
 	private ABToken terminalValue;
 	
+	// Token kind id of a terminal or end of stack, -1 otherwise
+	private int kind = -1;
+	
+	// Symbol id in the compiled parse table, -1 if not compiled
+	private int symbol = -1;
+	
 	/**
 	 * Create grammar token
 	 * @param value
@@ -45,10 +52,12 @@ public class ABGrammarToken {
 		} else if(value.equals(END_OF_STACK)) {
 			this.value = value;
 			this.type = Type.END_OF_STACK;
+			this.kind = ABTokenKind.id(value);
 			
 		} else if(value.charAt(0) == '\'' && value.charAt(value.length()-1) == '\'') {
 			this.value = value.substring(1, value.length()-1);
 			this.type = Type.TERMINAL;
+			this.kind = ABTokenKind.id(this.value);
 		
 		} else if(value.charAt(0) == '#' && value.charAt(value.length()-1) == '#') {
 			this.value = value.substring(1, value.length()-1);
@@ -107,6 +116,30 @@ public class ABGrammarToken {
 		return this.value;
 	}
 
+	/**
+	 * Get token kind id of a terminal
+	 * @return kind or -1 if not a terminal or end of stack
+	 */
+	public int getKind() {
+		return this.kind;
+	}
+	
+	/**
+	 * Get symbol id in the compiled parse table
+	 * @return symbol or -1 if not compiled
+	 */
+	public int getSymbol() {
+		return this.symbol;
+	}
+	
+	/**
+	 * Set symbol id in the compiled parse table
+	 * @param symbol
+	 */
+	public void setSymbol(int symbol) {
+		this.symbol = symbol;
+	}
+	
 	/**
 	 * Get detailed value
 	 * @return
@@ -175,6 +208,8 @@ public class ABGrammarToken {
 	 * @return a copy
 	 */
 	public ABGrammarToken makeCopy() {
-		return new ABGrammarToken(originalValue);
+		ABGrammarToken copy = new ABGrammarToken(originalValue);
+		copy.symbol = symbol;
+		return copy;
 	}
 }
@@ -0,0 +1,172 @@
+package scanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scan a text after an edit, reusing the tokens of the text before the edit
+ * Tokens are scanned again from the last token before the edit until the machine is in the initial state
+ * at a position where it was also in the initial state before the edit. The following tokens are moved.
+ */
+public class ABIncrementalScanner {
+	
+	// Components
+	private final CompiledLexer lexer;
+	
+	// Report consecutive invalid chars as one token
+	private boolean coalesceInvalidChars;
+	
+	/**
+	 * Create incremental scanner
+	 * @param model
+	 */
+	public ABIncrementalScanner(ABTableModel model) {
+		this(model.getLexer());
+	}
+	
+	/**
+	 * Create incremental scanner
+	 * @param lexer
+	 */
+	public ABIncrementalScanner(CompiledLexer lexer) {
+		this.lexer = lexer;
+	}
+	
+	/**
+	 * Report consecutive invalid chars as one token, as {@link ABScannerErrorPolicy#isCoalesceInvalidChars()}
+	 * The previous tokens must be scanned the same way. A span still ends before the first char that does not
+	 * continue it, so it reads at most one char after its end like the other tokens.
+	 * @param coalesceInvalidChars
+	 */
+	public void setCoalesceInvalidChars(boolean coalesceInvalidChars) {
+		this.coalesceInvalidChars = coalesceInvalidChars;
+	}
+	
+	/**
+	 * Scan a text after an edit
+	 * @param text before the edit
+	 * @param offset
+	 * @param removedLength
+	 * @param insertedText
+	 * @param previousTokens tokens of the text before the edit, in scan order
+	 * @return tokens of the text after the edit, in scan order
+	 */
+	public List<ABToken> scan(String text, int offset, int removedLength, String insertedText, List<ABToken> previousTokens) {
+		
+		// Replace line terminators
+		ABScannerCursor oldCursor = new ABScannerCursor(lexer, text);
+		ABScannerCursor newCursor = new ABScannerCursor(lexer, text.substring(0, offset) + insertedText + text.substring(offset + removedLength));
+		char[] oldBuffer = oldCursor.getBuffer(), newBuffer = newCursor.getBuffer();
+		int oldLimit = oldCursor.getLimit(), newLimit = newCursor.getLimit();
+		int delta = newLimit - oldLimit;
+		
+		// Unchanged beginning and end
+		int prefix = 0, suffix = 0, max = Math.min(oldLimit, newLimit);
+		while(prefix < max && oldBuffer[prefix] == newBuffer[prefix])
+			prefix++;
+		while(suffix < max - prefix && oldBuffer[oldLimit - 1 - suffix] == newBuffer[newLimit - 1 - suffix])
+			suffix++;
+		int oldEditEnd = oldLimit - suffix, newEditEnd = newLimit - suffix;
+		
+		// Lines
+		int[] oldLineStarts = lineStarts(oldBuffer, oldLimit);
+		int[] newLineStarts = lineStarts(newBuffer, newLimit);
+		
+		// Previous tokens offsets
+		int size = previousTokens.size();
+		int[] starts = new int[size], ends = new int[size];
+		for(int i = 0; i < size; i++) {
+			ABToken token = previousTokens.get(i);
+			starts[i] = oldLineStarts[token.getRow() - 1] + token.getCol() - 1;
+			ends[i] = starts[i] + token.getValue().length();
+		}
+		
+		// Keep tokens that did not read the edited chars, a token may read one char after its end
+		int kept = 0;
+		while(kept < size && ends[kept] < prefix)
+			kept++;
+		List<ABToken> tokens = new ArrayList<>(previousTokens.subList(0, kept));
+		
+		// Scan from the end of the last kept token
+		int start = kept > 0 ? ends[kept - 1] : 0;
+		int line = lineOf(newLineStarts, start);
+		ABScannerCursor cursor = new ABScannerCursor(lexer, newBuffer, newLimit, start, Integer.MAX_VALUE, line, newLineStarts[line - 1]);
+		if(coalesceInvalidChars)
+			cursor.setErrorPolicy(ABScannerErrorPolicy.COALESCE);
+		int resync = -1;
+		ABToken token;
+		while((cursor.getPosition() < newEditEnd || (resync = indexAt(starts, ends, cursor.getPosition() - delta)) < 0) && (token = cursor.nextToken()) != null)
+			tokens.add(token);
+		
+		// Move the tokens after the edit
+		if(resync >= 0) {
+			int lineDelta = newLineStarts.length - oldLineStarts.length;
+			int oldEditEndLine = lineOf(oldLineStarts, oldEditEnd);
+			int colDelta = (newEditEnd - newLineStarts[lineOf(newLineStarts, newEditEnd) - 1]) - (oldEditEnd - oldLineStarts[oldEditEndLine - 1]);
+			for(int i = resync; i < size; i++) {
+				token = previousTokens.get(i);
+				boolean editLine = token.getRow() == oldEditEndLine && colDelta != 0;
+				if(lineDelta != 0 || editLine) {
+					token = new ABToken(token);
+					if(editLine)
+						token.setCol(token.getCol() + colDelta);
+					token.setRow(token.getRow() + lineDelta);
+				}
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+	
+	/**
+	 * Find the first previous token to keep when the machine is in the initial state at a position
+	 * @param starts
+	 * @param ends
+	 * @param position
+	 * @return token index or -1 if the position is inside a token
+	 */
+	private int indexAt(int[] starts, int[] ends, int position) {
+		
+		// Last token starting at or before the position
+		int index = Arrays.binarySearch(starts, position);
+		if(index >= 0)
+			return index;
+		index = -index - 2;
+		
+		// If inside that token
+		if(index >= 0 && ends[index] > position)
+			return -1;
+		return index + 1;
+	}
+	
+	/**
+	 * Get offsets where lines start
+	 * @param buffer
+	 * @param limit
+	 * @return line starts
+	 */
+	private int[] lineStarts(char[] buffer, int limit) {
+		int lines = 1;
+		for(int i = 0; i < limit; i++)
+			if(buffer[i] == ABTableModel.EOL_CHAR)
+				lines++;
+		
+		int[] starts = new int[lines];
+		for(int i = 0, line = 1; i < limit; i++)
+			if(buffer[i] == ABTableModel.EOL_CHAR)
+				starts[line++] = i + 1;
+		return starts;
+	}
+	
+	/**
+	 * Get line of a position
+	 * @param lineStarts
+	 * @param position
+	 * @return line
+	 */
+	private int lineOf(int[] lineStarts, int position) {
+		int index = Arrays.binarySearch(lineStarts, position);
+		return index >= 0 ? index + 1 : -index - 1;
+	}
+}
@@ -0,0 +1,582 @@
+package scanner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import finiteAutomata.FiniteAutomata;
+import finiteAutomata.State;
+import finiteAutomata.Transition;
+
+/**
+ * Lexical specification compiled into a scanner table
+ * Tokens are regular expressions over the table labels. They are joined into one NFA (Thompson),
+ * converted to a DFA (subset construction) and minimized.
+ *
+ * The scanner stops at the first final state, so the longest match uses one char of lookahead:
+ * a state that matches a token but can continue goes to a backtrack state of the token on the
+ * chars that do not continue it.
+ *
+ * Format, one definition per line, lines starting with % are comments:
+ * 	skip = {space} | {eol}			labels ignored between tokens
+ * 	error = T_ERR_INVALID_CHAR		token of chars that cannot start or complete a token
+ * 	token = T_NAME, expression		on matches of equal length the first token wins
+ *
+ * Expressions use | * + ? ( ) . [abc] [^abc] and \ to escape. Whitespace is ignored.
+ * Letters, 1-9 and spaces are read as labels: {letter} {nonzero} {digit} {space} {eol} {eof} {other}
+ */
+public class ABLexicalSpec {
+	
+	// Spec file extension
+	public static final String EXTENSION = ".spec";
+	
+	// Prefix of the generated states
+	private static final char PREFIX = 'q';
+	
+	// Definitions
+	private static final Pattern SKIP = Pattern.compile("skip\\s*=\\s*(.+)");
+	private static final Pattern ERROR = Pattern.compile("error\\s*=\\s*(\\S+)");
+	private static final Pattern TOKEN = Pattern.compile("token\\s*=\\s*([^,\\s]+)\\s*,(.+)");
+	
+	// Labels read through a class
+	private static final Map<String, char[]> CLASSES = new HashMap<>();
+	
+	static {
+		CLASSES.put("letter", new char[]{ABTableModel.LETTER});
+		CLASSES.put("nonzero", new char[]{ABTableModel.NON_ZERO});
+		CLASSES.put("digit", new char[]{ABTableModel.NON_ZERO, '0'});
+		CLASSES.put("space", new char[]{ABTableModel.SPACE});
+		CLASSES.put("eol", new char[]{ABTableModel.EOL});
+		CLASSES.put("eof", new char[]{ABTableModel.EOF});
+		CLASSES.put("other", new char[]{ABTableModel.OTHER});
+	}
+	
+	// Tokens and their expressions
+	private List<String> tokens;
+	private List<Expression> expressions;
+	
+	// Skipped labels and error token
+	private List<Expression> skip;
+	private String errorToken;
+	
+	// All labels, the class labels then the chars used in the expressions
+	private Set<Character> labels;
+	
+	/**
+	 * Create an empty spec
+	 */
+	private ABLexicalSpec() {
+		tokens = new ArrayList<>();
+		expressions = new ArrayList<>();
+		skip = new ArrayList<>();
+		labels = new LinkedHashSet<>();
+		for(char label : new char[]{ABTableModel.LETTER, ABTableModel.NON_ZERO, ABTableModel.SPACE, ABTableModel.EOL, ABTableModel.EOF, ABTableModel.OTHER})
+			labels.add(label);
+	}
+	
+	/**
+	 * Parse a spec file
+	 * @param specFile
+	 * @return spec
+	 * @throws IOException
+	 */
+	public static ABLexicalSpec parse(String specFile) throws IOException {
+		InputStream in = ABLexicalSpec.class.getResourceAsStream(specFile);
+		if(in == null)
+			throw new IOException("Cannot find " + specFile);
+		try {
+			return parse(in);
+		} finally {
+			in.close();
+		}
+	}
+	
+	/**
+	 * Parse a spec
+	 * @param in
+	 * @return spec
+	 * @throws IOException
+	 */
+	public static ABLexicalSpec parse(InputStream in) throws IOException {
+		ABLexicalSpec spec = new ABLexicalSpec();
+		Scanner scanFile = new Scanner(in, "UTF-8");
+		int lineNumber = 0;
+		
+		try {
+			while(scanFile.hasNextLine()) {
+				String line = scanFile.nextLine().trim();
+				lineNumber++;
+				
+				// Skip empty lines and comments
+				if(line.isEmpty() || line.startsWith("%"))
+					continue;
+				
+				Matcher matcher;
+				if((matcher = TOKEN.matcher(line)).matches()) {
+					Expression expression = new ExpressionParser(spec, matcher.group(2), lineNumber).parse();
+					if(expression.isNullable())
+						throw new IOException(String.format("Wrong file format! Token %s matches empty text at line %d", matcher.group(1), lineNumber));
+					spec.tokens.add(matcher.group(1));
+					spec.expressions.add(expression);
+				
+				} else if((matcher = ERROR.matcher(line)).matches()) {
+					spec.errorToken = matcher.group(1);
+				
+				} else if((matcher = SKIP.matcher(line)).matches()) {
+					
+					// Only single labels can be skipped, the scanner has no token for them
+					Expression expression = new ExpressionParser(spec, matcher.group(1), lineNumber).parse();
+					if(!expression.isLabelSet())
+						throw new IOException(String.format("Wrong file format! Expecting labels to skip at line %d", lineNumber));
+					spec.skip.add(expression);
+				
+				} else {
+					throw new IOException(String.format("Wrong file format! Expecting skip, error or token at line %d", lineNumber));
+				}
+			}
+		} finally {
+			scanFile.close();
+		}
+		
+		// Chars that cannot start or complete a token need a token
+		if(spec.errorToken == null)
+			throw new IOException("Wrong file format! Expecting error");
+		return spec;
+	}
+	
+	/**
+	 * Join the tokens into one NFA
+	 * The final state of each token is created after the states of the previous tokens
+	 * @return NFA
+	 */
+	public FiniteAutomata toNFA() {
+		FiniteAutomata nfa = new FiniteAutomata(PREFIX);
+		State initial = nfa.addState(State.INITIAL);
+		
+		for(int i = 0; i < expressions.size(); i++) {
+			State[] fragment = build(nfa, expressions.get(i));
+			nfa.addTransition(initial, fragment[0], Transition.LAMBDA);
+			nfa.addFinalState(fragment[1]);
+			fragment[1].setToken(tokens.get(i));
+		}
+		return nfa;
+	}
+	
+	/**
+	 * Create the scanner machine
+	 * Every state that is not final reads every label, so the table never falls back on OTHER
+	 * @return minimized DFA
+	 */
+	public FiniteAutomata toMachine() {
+		FiniteAutomata dfa = toNFA().toDFA();
+		State[] states = dfa.getStates();
+		Map<State, State> machineState = new HashMap<>();
+		Map<String, State> tokenStates = new HashMap<>();
+		FiniteAutomata machine = new FiniteAutomata(PREFIX);
+		
+		// Skipped labels
+		Set<Character> skipped = new HashSet<>();
+		for(Expression expression : skip)
+			skipped.addAll(expression.getLabels(labels));
+		
+		// A token that cannot continue ends on the char that completes it
+		for(State state : states) {
+			State newState;
+			if(state.isFinal() && state.getTransition().length == 0) {
+				newState = machine.addState(State.FINAL);
+				newState.setToken(state.getToken());
+			} else {
+				newState = machine.addState(state.isInitial() ? State.INITIAL : State.NORMAL);
+			}
+			machineState.put(state, newState);
+		}
+		
+		// Transitions on every label
+		for(State state : states) {
+			State fromState = machineState.get(state);
+			if(fromState.isFinal())
+				continue;
+			
+			for(char label : labels) {
+				State toState = state.getOnRead(label);
+				
+				if(toState != null)
+					toState = machineState.get(toState);
+				
+				// Between tokens, skip or read one invalid char
+				else if(state.isInitial())
+					toState = skipped.contains(label) ? fromState : getTokenState(machine, tokenStates, errorToken, false);
+				
+				// After a token, back up the char that does not continue it
+				else if(state.isFinal())
+					toState = getTokenState(machine, tokenStates, state.getToken(), true);
+				
+				// Incomplete token
+				else
+					toState = getTokenState(machine, tokenStates, errorToken, true);
+				
+				machine.addTransition(fromState, toState, label);
+			}
+		}
+		return machine.minimize();
+	}
+	
+	/**
+	 * Create the scanner table
+	 * @return table
+	 */
+	public ABTableModel toTableModel() {
+		FiniteAutomata machine = toMachine();
+		char[] header = new char[labels.size()];
+		int col = 0;
+		for(char label : labels)
+			header[col++] = label;
+		return new ABTableModel(machine.getStates(), header);
+	}
+	
+	/**
+	 * Get or create the final state of a token
+	 * @param machine
+	 * @param tokenStates
+	 * @param token
+	 * @param backtrack
+	 * @return final state
+	 */
+	private State getTokenState(FiniteAutomata machine, Map<String, State> tokenStates, String token, boolean backtrack) {
+		String key = token + (backtrack ? " backtrack" : "");
+		State state = tokenStates.get(key);
+		if(state == null) {
+			state = machine.addState(State.FINAL);
+			state.setToken(token);
+			state.setBacktrack(backtrack);
+			tokenStates.put(key, state);
+		}
+		return state;
+	}
+	
+	/**
+	 * Thompson construction of an expression
+	 * @param nfa
+	 * @param expression
+	 * @return start and end states
+	 */
+	private State[] build(FiniteAutomata nfa, Expression expression) {
+		State start, end;
+		State[] left, right;
+		
+		switch(expression.kind) {
+		case Expression.LABELS:
+			start = nfa.addState(State.NORMAL);
+			end = nfa.addState(State.NORMAL);
+			for(char label : expression.getLabels(labels))
+				nfa.addTransition(start, end, label);
+			return new State[]{start, end};
+		
+		case Expression.CONCAT:
+			left = build(nfa, expression.left);
+			right = build(nfa, expression.right);
+			nfa.addTransition(left[1], right[0], Transition.LAMBDA);
+			return new State[]{left[0], right[1]};
+		
+		case Expression.ALTERNATION:
+			start = nfa.addState(State.NORMAL);
+			left = build(nfa, expression.left);
+			right = build(nfa, expression.right);
+			end = nfa.addState(State.NORMAL);
+			nfa.addTransition(start, left[0], Transition.LAMBDA);
+			nfa.addTransition(start, right[0], Transition.LAMBDA);
+			nfa.addTransition(left[1], end, Transition.LAMBDA);
+			nfa.addTransition(right[1], end, Transition.LAMBDA);
+			return new State[]{start, end};
+		
+		default:
+			start = nfa.addState(State.NORMAL);
+			left = build(nfa, expression.left);
+			end = nfa.addState(State.NORMAL);
+			nfa.addTransition(start, left[0], Transition.LAMBDA);
+			nfa.addTransition(left[1], end, Transition.LAMBDA);
+			
+			// Repeat
+			if(expression.kind != Expression.OPTIONAL)
+				nfa.addTransition(left[1], left[0], Transition.LAMBDA);
+			
+			// Skip
+			if(expression.kind != Expression.PLUS)
+				nfa.addTransition(start, end, Transition.LAMBDA);
+			return new State[]{start, end};
+		}
+	}
+	
+	/**
+	 * Regular expression tree
+	 */
+	private static class Expression {
+		
+		// Kinds
+		static final int LABELS = 0, CONCAT = 1, ALTERNATION = 2, STAR = 3, PLUS = 4, OPTIONAL = 5;
+		
+		int kind;
+		Expression left, right;
+		
+		// Labels, or the excluded labels if negated
+		Set<Character> labels;
+		boolean negated;
+		
+		/**
+		 * Create a set of labels
+		 * @param labels
+		 * @param negated
+		 */
+		Expression(Set<Character> labels, boolean negated) {
+			this.kind = LABELS;
+			this.labels = labels;
+			this.negated = negated;
+		}
+		
+		/**
+		 * Create an operation
+		 * @param kind
+		 * @param left
+		 * @param right
+		 */
+		Expression(int kind, Expression left, Expression right) {
+			this.kind = kind;
+			this.left = left;
+			this.right = right;
+		}
+		
+		/**
+		 * Check if the expression matches empty text
+		 * @return boolean
+		 */
+		boolean isNullable() {
+			switch(kind) {
+			case LABELS:
+				return false;
+			case CONCAT:
+				return left.isNullable() && right.isNullable();
+			case ALTERNATION:
+				return left.isNullable() || right.isNullable();
+			case PLUS:
+				return left.isNullable();
+			default:
+				return true;
+			}
+		}
+		
+		/**
+		 * Check if the expression reads exactly one label
+		 * @return boolean
+		 */
+		boolean isLabelSet() {
+			return kind == LABELS || (kind == ALTERNATION && left.isLabelSet() && right.isLabelSet());
+		}
+		
+		/**
+		 * Get the labels read by a label set
+		 * @param all labels of the spec
+		 * @return labels
+		 */
+		Set<Character> getLabels(Set<Character> all) {
+			Set<Character> result = new LinkedHashSet<>();
+			if(kind == ALTERNATION) {
+				result.addAll(left.getLabels(all));
+				result.addAll(right.getLabels(all));
+			} else if(negated) {
+				result.addAll(all);
+				result.removeAll(labels);
+			} else {
+				result.addAll(labels);
+			}
+			return result;
+		}
+	}
+	
+	/**
+	 * Recursive descent parser of an expression
+	 */
+	private static class ExpressionParser {
+		
+		private ABLexicalSpec spec;
+		private String text;
+		private int pos, lineNumber;
+		
+		/**
+		 * Create parser
+		 * @param spec where the chars are stored as labels
+		 * @param text
+		 * @param lineNumber
+		 */
+		ExpressionParser(ABLexicalSpec spec, String text, int lineNumber) {
+			this.spec = spec;
+			this.text = text.replaceAll("\\s", "");
+			this.lineNumber = lineNumber;
+		}
+		
+		/**
+		 * Parse the whole text
+		 * @return expression
+		 * @throws IOException
+		 */
+		Expression parse() throws IOException {
+			Expression expression = parseAlternation();
+			if(pos < text.length())
+				throw error("Unexpected " + text.charAt(pos));
+			return expression;
+		}
+		
+		/**
+		 * a | b
+		 */
+		private Expression parseAlternation() throws IOException {
+			Expression expression = parseConcat();
+			while(pos < text.length() && text.charAt(pos) == '|') {
+				pos++;
+				expression = new Expression(Expression.ALTERNATION, expression, parseConcat());
+			}
+			return expression;
+		}
+		
+		/**
+		 * ab
+		 */
+		private Expression parseConcat() throws IOException {
+			Expression expression = null;
+			while(pos < text.length() && text.charAt(pos) != '|' && text.charAt(pos) != ')') {
+				Expression next = parseRepeat();
+				expression = expression == null ? next : new Expression(Expression.CONCAT, expression, next);
+			}
+			if(expression == null)
+				throw error("Empty expression");
+			return expression;
+		}
+		
+		/**
+		 * a* a+ a?
+		 */
+		private Expression parseRepeat() throws IOException {
+			Expression expression = parseAtom();
+			while(pos < text.length()) {
+				char c = text.charAt(pos);
+				if(c == '*')
+					expression = new Expression(Expression.STAR, expression, null);
+				else if(c == '+')
+					expression = new Expression(Expression.PLUS, expression, null);
+				else if(c == '?')
+					expression = new Expression(Expression.OPTIONAL, expression, null);
+				else
+					break;
+				pos++;
+			}
+			return expression;
+		}
+		
+		/**
+		 * (a) [abc] . {class} \c c
+		 */
+		private Expression parseAtom() throws IOException {
+			char c = text.charAt(pos++);
+			Set<Character> labels = new LinkedHashSet<>();
+			
+			switch(c) {
+			case '(':
+				Expression expression = parseAlternation();
+				expect(')');
+				return expression;
+			
+			case '[':
+				boolean negated = pos < text.length() && text.charAt(pos) == '^';
+				if(negated)
+					pos++;
+				while(pos < text.length() && text.charAt(pos) != ']')
+					parseLabels(text.charAt(pos++), labels);
+				expect(']');
+				if(labels.isEmpty())
+					throw error("Empty class");
+				return new Expression(labels, negated);
+			
+			case '.':
+				return new Expression(labels, true);
+			
+			case ')':
+			case ']':
+			case '*':
+			case '+':
+			case '?':
+				throw error("Unexpected " + c);
+			
+			default:
+				parseLabels(c, labels);
+				return new Expression(labels, false);
+			}
+		}
+		
+		/**
+		 * Read a class, an escaped char or a char
+		 * @param c first char, already read
+		 * @param labels where the labels are added
+		 */
+		private void parseLabels(char c, Set<Character> labels) throws IOException {
+			
+			// Class
+			if(c == '{') {
+				int end = text.indexOf('}', pos);
+				if(end < 0)
+					throw error("Expecting }");
+				char[] classLabels = CLASSES.get(text.substring(pos, end));
+				if(classLabels == null)
+					throw error("Unknown class " + text.substring(pos, end));
+				pos = end + 1;
+				for(char label : classLabels)
+					labels.add(label);
+				spec.labels.addAll(labels);
+				return;
+			}
+			
+			// Escaped char
+			if(c == '\\') {
+				if(pos == text.length())
+					throw error("Expecting a char after \\");
+				c = text.charAt(pos++);
+			}
+			
+			// Chars read through a class
+			if((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '1' && c <= '9') || c == ABTableModel.EOL_CHAR || c == ABTableModel.EOF_CHAR)
+				throw error(String.format("%c must be read through its class", c));
+			
+			// Chars outside the compiled table are read as OTHER
+			if(c >= ABTableModel.CHAR_CLASS_SIZE)
+				throw error(String.format("%c must be read as {other}", c));
+			labels.add(c);
+			spec.labels.add(c);
+		}
+		
+		/**
+		 * Read an expected char
+		 * @param c
+		 */
+		private void expect(char c) throws IOException {
+			if(pos == text.length() || text.charAt(pos) != c)
+				throw error("Expecting " + c);
+			pos++;
+		}
+		
+		/**
+		 * Create a format error
+		 * @param message
+		 * @return exception
+		 */
+		private IOException error(String message) {
+			return new IOException(String.format("Wrong file format! %s at line %d", message, lineNumber));
+		}
+	}
+}
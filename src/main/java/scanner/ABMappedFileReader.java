@@ -0,0 +1,147 @@
+package scanner;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ABMappedFileReader extends Reader {
+	
+	// File
+	private FileChannel channel;
+	private long position, size;
+	
+	// Mapped part of the file
+	private MappedByteBuffer segment;
+	private int segmentSize;
+	private boolean lastSegment, splitChar;
+	
+	// UTF-8 decoder, ASCII is a subset
+	private CharsetDecoder decoder;
+	
+	// Low surrogate left when the caller asked for one char
+	private CharBuffer pending;
+	
+	// Largest mapped part of the file
+	public static final int SEGMENT_SIZE = 1 << 30;
+	
+	// A mapped part holds at least one char
+	private static final int MIN_SEGMENT_SIZE = 4;
+	
+	/**
+	 * Map a UTF-8 file
+	 * @param path
+	 * @throws IOException
+	 */
+	public ABMappedFileReader(Path path) throws IOException {
+		this(path, SEGMENT_SIZE);
+	}
+	
+	/**
+	 * Map a UTF-8 file
+	 * @param path
+	 * @param segmentSize largest mapped part of the file
+	 * @throws IOException
+	 */
+	ABMappedFileReader(Path path, int segmentSize) throws IOException {
+		this.channel = FileChannel.open(path, StandardOpenOption.READ);
+		this.size = channel.size();
+		this.segmentSize = Math.max(MIN_SEGMENT_SIZE, segmentSize);
+		this.decoder = StandardCharsets.UTF_8.newDecoder()
+				.onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+		this.pending = CharBuffer.allocate(2);
+		this.pending.flip();
+	}
+	
+	/**
+	 * Decode chars from the mapped file
+	 * @param cbuf
+	 * @param off
+	 * @param len
+	 * @return number of chars or -1 if end of file
+	 */
+	@Override
+	public int read(char[] cbuf, int off, int len) throws IOException {
+		
+		if(len == 0)
+			return 0;
+		
+		// If a char was left
+		if(pending.hasRemaining()) {
+			cbuf[off] = pending.get();
+			return 1;
+		}
+		
+		// A surrogate pair needs two chars
+		CharBuffer out;
+		if(len >= 2) {
+			out = CharBuffer.wrap(cbuf, off, len);
+		} else {
+			pending.clear();
+			out = pending;
+		}
+		
+		// Decode until at least one char is read
+		int start = out.position();
+		while(out.position() == start) {
+			
+			// If the mapped part is consumed or ends in the middle of a char, map the next part
+			if((segment == null || !segment.hasRemaining() || splitChar) && !nextSegment())
+				break;
+			
+			CoderResult result = decoder.decode(segment, out, lastSegment);
+			splitChar = result.isUnderflow() && segment.hasRemaining();
+		}
+		
+		// If decoded through pending
+		if(out == pending) {
+			pending.flip();
+			if(!pending.hasRemaining())
+				return -1;
+			cbuf[off] = pending.get();
+			return 1;
+		}
+		
+		int read = out.position() - start;
+		return read == 0 ? -1 : read;
+	}
+	
+	/**
+	 * Map the next part of the file, starting at the first byte not decoded
+	 * @return true if there are more bytes
+	 * @throws IOException
+	 */
+	private boolean nextSegment() throws IOException {
+		
+		// Bytes of a split char are mapped again
+		long start = position - (segment == null ? 0 : segment.remaining());
+		
+		// If end of file
+		if(start >= size)
+			return false;
+		
+		// Map
+		int length = (int) Math.min(segmentSize, size - start);
+		segment = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		position = start + length;
+		lastSegment = position >= size;
+		splitChar = false;
+		return true;
+	}
+	
+	/**
+	 * Close file
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,304 @@
+package scanner;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Scan a text in chunks on a fork-join pool
+ * Chunks start after a line terminator and are scanned as if the machine was in the initial state.
+ * When the previous chunk ends inside a token, e.g. a block comment, the chunk is scanned again
+ * from the end of that token until it reaches a position where both scans are in the initial state.
+ */
+public class ABParallelScanner {
+	
+	// Components
+	private final CompiledLexer lexer;
+	private final ForkJoinPool pool;
+	
+	// Smallest chunk used by this scanner
+	private final int minChunkSize;
+	
+	// Report consecutive invalid chars as one token
+	private boolean coalesceInvalidChars;
+	
+	// Smallest chunk in chars
+	public static final int MIN_CHUNK_SIZE = 1 << 16;
+	
+	// Chunks per thread
+	private static final int CHUNKS_PER_THREAD = 4;
+	
+	/**
+	 * Create parallel scanner
+	 * @param model
+	 * @param pool
+	 */
+	public ABParallelScanner(ABTableModel model, ForkJoinPool pool) {
+		this(model.getLexer(), pool, MIN_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Create parallel scanner
+	 * @param lexer
+	 * @param pool
+	 */
+	public ABParallelScanner(CompiledLexer lexer, ForkJoinPool pool) {
+		this(lexer, pool, MIN_CHUNK_SIZE);
+	}
+	
+	/**
+	 * Create parallel scanner
+	 * @param lexer
+	 * @param pool
+	 * @param minChunkSize
+	 */
+	ABParallelScanner(CompiledLexer lexer, ForkJoinPool pool, int minChunkSize) {
+		this.lexer = lexer;
+		this.pool = pool;
+		this.minChunkSize = minChunkSize;
+	}
+	
+	/**
+	 * Report consecutive invalid chars as one token, as {@link ABScannerErrorPolicy#isCoalesceInvalidChars()}
+	 * The error budget is not applied, chunks are scanned out of order
+	 * @param coalesceInvalidChars
+	 */
+	public void setCoalesceInvalidChars(boolean coalesceInvalidChars) {
+		this.coalesceInvalidChars = coalesceInvalidChars;
+	}
+	
+	/**
+	 * Scan a text
+	 * @param text
+	 * @return tokens in the same order as a sequential scan
+	 */
+	public List<ABToken> scan(CharSequence text) {
+		
+		// Replace line terminators
+		ABScannerCursor cursor = new ABScannerCursor(lexer, text);
+		char[] buffer = cursor.getBuffer();
+		int limit = cursor.getLimit();
+		
+		// Split
+		List<Chunk> chunks = split(buffer, limit);
+		
+		// Count lines, then scan each chunk from its first line
+		List<Callable<Void>> counts = new ArrayList<>();
+		for(final Chunk chunk : chunks) {
+			counts.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					chunk.countLines(buffer);
+					return null;
+				}
+			});
+		}
+		invokeAll(counts);
+		
+		List<Callable<Void>> scans = new ArrayList<>();
+		int line = 1;
+		for(final Chunk chunk : chunks) {
+			final int chunkLine = line;
+			scans.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					chunk.scan(lexer, errorPolicy(), buffer, limit, chunkLine);
+					return null;
+				}
+			});
+			line += chunk.lines;
+		}
+		invokeAll(scans);
+		
+		// Merge
+		return merge(chunks, buffer, limit);
+	}
+	
+	/**
+	 * Split buffer after line terminators
+	 * @param buffer
+	 * @param limit
+	 * @return chunks
+	 */
+	private List<Chunk> split(char[] buffer, int limit) {
+		int count = Math.max(1, Math.min(pool.getParallelism() * CHUNKS_PER_THREAD, limit / minChunkSize));
+		List<Chunk> chunks = new ArrayList<>(count);
+		int start = 0;
+		for(int i = 1; i <= count && start < limit; i++) {
+			
+			// Move the end after the next line terminator
+			int end = i == count ? limit : Math.max(start, (int) ((long) limit * i / count));
+			while(end < limit && (end == 0 || buffer[end - 1] != ABTableModel.EOL_CHAR))
+				end++;
+			
+			if(end > start) {
+				chunks.add(new Chunk(start, end));
+				start = end;
+			}
+		}
+		return chunks;
+	}
+	
+	/**
+	 * Merge the chunks tokens, scanning again the beginning of chunks that started inside a token
+	 * @param chunks
+	 * @param buffer
+	 * @param limit
+	 * @return tokens
+	 */
+	private List<ABToken> merge(List<Chunk> chunks, char[] buffer, int limit) {
+		List<ABToken> tokens = new ArrayList<>();
+		
+		// Position where the sequential scan is in the initial state
+		int resume = 0, resumeLine = 1, resumeLineStart = 0;
+		
+		for(Chunk chunk : chunks) {
+			
+			// Scan again until both scans are in the initial state at the same position
+			int first = chunk.indexAt(resume);
+			if(first < 0 && resume < chunk.end) {
+				ABScannerCursor cursor = new ABScannerCursor(lexer, buffer, limit, resume, chunk.end, resumeLine, resumeLineStart);
+				cursor.setErrorPolicy(errorPolicy());
+				ABToken token;
+				while((first = chunk.indexAt(cursor.getPosition())) < 0 && (token = cursor.nextToken()) != null)
+					tokens.add(token);
+				
+				// If the scan left the chunk without reaching a common position
+				if(first < 0) {
+					resume = cursor.getPosition();
+					resumeLine = cursor.getLine();
+					resumeLineStart = cursor.getLineStart();
+				}
+			}
+			
+			// Keep the chunk tokens from the common position
+			if(first >= 0) {
+				tokens.addAll(chunk.tokens.subList(first, chunk.tokens.size()));
+				resume = chunk.resume;
+				resumeLine = chunk.resumeLine;
+				resumeLineStart = chunk.resumeLineStart;
+			}
+		}
+		return tokens;
+	}
+	
+	/**
+	 * Get the policy of the chunk cursors
+	 * @return policy without budget
+	 */
+	private ABScannerErrorPolicy errorPolicy() {
+		return coalesceInvalidChars ? ABScannerErrorPolicy.COALESCE : ABScannerErrorPolicy.KEEP_ALL;
+	}
+	
+	/**
+	 * Run tasks on the pool
+	 * @param tasks
+	 */
+	private void invokeAll(List<Callable<Void>> tasks) {
+		try {
+			for(Future<Void> future : pool.invokeAll(tasks))
+				future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Parallel scan interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Parallel scan failed", e.getCause());
+		}
+	}
+	
+	/**
+	 * Part of the text where tokens start
+	 */
+	private static class Chunk {
+		
+		// Range of token starts
+		private int start, end;
+		
+		// Line terminators in the range
+		private int lines;
+		
+		// Tokens and their offsets
+		private List<ABToken> tokens;
+		private int[] starts, ends;
+		
+		// Position after the last token, in the initial state
+		private int resume, resumeLine, resumeLineStart;
+		
+		/**
+		 * Create chunk
+		 * @param start
+		 * @param end
+		 */
+		Chunk(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+		
+		/**
+		 * Count line terminators
+		 * @param buffer
+		 */
+		void countLines(char[] buffer) {
+			for(int i = start; i < end; i++)
+				if(buffer[i] == ABTableModel.EOL_CHAR)
+					lines++;
+		}
+		
+		/**
+		 * Scan tokens starting in the chunk
+		 * @param lexer
+		 * @param errorPolicy
+		 * @param buffer
+		 * @param limit
+		 * @param line line at the start of the chunk
+		 */
+		void scan(CompiledLexer lexer, ABScannerErrorPolicy errorPolicy, char[] buffer, int limit, int line) {
+			ABScannerCursor cursor = new ABScannerCursor(lexer, buffer, limit, start, end, line, start);
+			cursor.setErrorPolicy(errorPolicy);
+			tokens = new ArrayList<>();
+			starts = new int[16];
+			ends = new int[16];
+			
+			ABToken token;
+			while((token = cursor.nextToken()) != null) {
+				if(tokens.size() == starts.length) {
+					starts = Arrays.copyOf(starts, starts.length * 2);
+					ends = Arrays.copyOf(ends, ends.length * 2);
+				}
+				starts[tokens.size()] = cursor.getTokenStart();
+				ends[tokens.size()] = cursor.getPosition();
+				tokens.add(token);
+			}
+			resume = cursor.getPosition();
+			resumeLine = cursor.getLine();
+			resumeLineStart = cursor.getLineStart();
+		}
+		
+		/**
+		 * Find the first token to keep when the sequential scan is in the initial state at a position
+		 * @param position
+		 * @return token index or -1 if this scan is not in the initial state at the position
+		 */
+		int indexAt(int position) {
+			
+			// If the position was not scanned in the initial state
+			if(position < start || position >= resume)
+				return -1;
+			
+			// Last token starting at or before the position
+			int index = Arrays.binarySearch(starts, 0, tokens.size(), position);
+			if(index >= 0)
+				return index;
+			index = -index - 2;
+			
+			// If inside that token
+			if(index >= 0 && ends[index] > position)
+				return -1;
+			return index + 1;
+		}
+	}
+}
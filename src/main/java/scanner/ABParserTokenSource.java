@@ -0,0 +1,77 @@
+package scanner;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Tokens read by the parser
+ * Comments and error tokens are skipped and the end of input token is appended
+ */
+public class ABParserTokenSource implements TokenSource {
+	
+	// Scanner tokens
+	private Iterator<ABToken> tokens;
+	
+	// Last scanner token, including comments
+	private ABToken lastToken;
+	
+	// Skipped error tokens
+	private List<ABToken> errorTokens;
+	
+	// End of input returned
+	private boolean ended;
+	
+	// End of input token
+	public static final String END_OF_INPUT = "$";
+	
+	/**
+	 * Create source on scanner tokens
+	 * @param tokens
+	 */
+	public ABParserTokenSource(Iterator<ABToken> tokens) {
+		this.tokens = tokens;
+		this.errorTokens = new ArrayList<>();
+	}
+	
+	/**
+	 * Get next token for the parser
+	 * @return next token, end of input token, then null
+	 */
+	@Override
+	public ABToken nextToken() {
+		
+		while(tokens.hasNext()) {
+			ABToken token = tokens.next();
+			
+			// If error token, skip it
+			if(token.isError()) {
+				errorTokens.add(token);
+				continue;
+			}
+			lastToken = token;
+			
+			// If not excluded, return it
+			if(!ABScanner.EXCLUDE_PARSER.contains(token.getToken()))
+				return token;
+		}
+		
+		// If end of input already returned
+		if(ended)
+			return null;
+		ended = true;
+		
+		// End of input is after the last token
+		if(lastToken != null)
+			return new ABToken(END_OF_INPUT, END_OF_INPUT, lastToken.getRow(), lastToken.getCol() + lastToken.getValue().length());
+		return new ABToken(END_OF_INPUT, END_OF_INPUT, 0, 0);
+	}
+	
+	/**
+	 * Get error tokens skipped so far
+	 * @return error tokens
+	 */
+	public List<ABToken> getErrorTokens() {
+		return errorTokens;
+	}
+}
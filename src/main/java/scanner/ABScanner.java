@@ -1,28 +1,34 @@
 package scanner;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Scanner;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import scanner.helper.ABTokenHelper;
 import scanner.helper.IdentifierHelper;
-import finiteAutomata.FiniteAutomata;
-import finiteAutomata.State;
 
 public class ABScanner {
 	
 	// Logger
 	private Logger l = LogManager.getFormatterLogger(getClass());
+	
+	// Trace every line and token, checked once so the disabled trace costs nothing per token
+	private final boolean trace = l.isTraceEnabled();
 		
 	// Components
-	private FiniteAutomata machine;
 	private ABTableModel model;
 	
 	// Current line
@@ -49,17 +55,29 @@ public class ABScanner {
 	// State
 	private int state;
 	
+	// Error reporting
+	private ABScannerErrorPolicy errorPolicy = ABScannerErrorPolicy.KEEP_ALL;
+	
+	// Smallest text scanned in parallel, smaller texts cost more to split and merge than they gain
+	public static final int MIN_PARALLEL_SIZE = 4 * ABParallelScanner.MIN_CHUNK_SIZE;
+	
 	// Exclude when parsing
 	public static final Set<String> EXCLUDE_PARSER = new HashSet<>(Arrays.asList(ABTokenHelper.T_BLOCK_COMMENT, ABTokenHelper.T_INLINE_COMMENT));
 	
 	public ABScanner(String dfaFile) {
+		this(dfaFile, false);
+	}
+	
+	/**
+	 * Create scanner
+	 * @param dfaFile
+	 * @param minimize build the table from the minimized machine
+	 */
+	public ABScanner(String dfaFile, boolean minimize) {
 		
 		try {
-			// Create finite state machine
-			machine = FiniteAutomata.inParser(dfaFile);
-			
-			// Create table from machine
-			model = new ABTableModel(machine.getStates(), machine.getAllTransitionLabels());
+			// Create table from the machine or its cache
+			model = ABTableModelCache.load(dfaFile, minimize);
 			
 			// Store logs
 			l.info(model);
@@ -75,6 +93,7 @@ public class ABScanner {
 	
 	/**
 	 * Process a full file
+	 * Token values are only created when the token is found
 	 * @param text
 	 */
 	public void processText(String text) {
@@ -82,6 +101,157 @@ public class ABScanner {
 		// Update time
 		this.scannerProcessTime = System.currentTimeMillis();
 		
+		// Reset list of tokens
+		nonErrorToken.clear();
+		errorToken.clear();
+		
+		// Scan text
+		ABScannerCursor cursor = model.getLexer().scan(text);
+		cursor.setErrorPolicy(errorPolicy);
+		
+		// While there are more tokens to consume
+		ABToken token;
+		while((token = cursor.nextToken()) != null)
+			addToken(token);
+		
+		// Store scanner time
+		this.scannerProcessTime = System.currentTimeMillis() - this.scannerProcessTime;
+	}
+	
+	/**
+	 * Process a full file in chunks on the common fork-join pool
+	 * @param text
+	 */
+	public void processTextParallel(String text) {
+		processTextParallel(text, ForkJoinPool.commonPool());
+	}
+	
+	/**
+	 * Process a full file in chunks on a fork-join pool
+	 * Tokens are the same as {@link #processText(String)}, which is used for a single thread or a text
+	 * smaller than {@link #MIN_PARALLEL_SIZE}
+	 * @param text
+	 * @param pool
+	 */
+	public void processTextParallel(String text, ForkJoinPool pool) {
+		
+		// Sequential scan
+		if(pool.getParallelism() == 1 || text.length() < MIN_PARALLEL_SIZE) {
+			processText(text);
+			return;
+		}
+		
+		// Update time
+		this.scannerProcessTime = System.currentTimeMillis();
+		
+		// Reset list of tokens
+		nonErrorToken.clear();
+		errorToken.clear();
+		
+		// Scan chunks
+		ABParallelScanner parallelScanner = new ABParallelScanner(model.getLexer(), pool);
+		parallelScanner.setCoalesceInvalidChars(errorPolicy.isCoalesceInvalidChars());
+		addTokens(parallelScanner.scan(text));
+		
+		// Store scanner time
+		this.scannerProcessTime = System.currentTimeMillis() - this.scannerProcessTime;
+	}
+	
+	/**
+	 * Process a file after an edit, scanning again only the edited part
+	 * The returned tokens are not cut by the error budget, so they can be reused by the next edit
+	 * @param text before the edit
+	 * @param offset
+	 * @param removedLength
+	 * @param insertedText
+	 * @param previousTokens tokens of the text before the edit, in scan order
+	 * @return tokens of the text after the edit, in scan order
+	 */
+	public List<ABToken> processEdit(String text, int offset, int removedLength, String insertedText, List<ABToken> previousTokens) {
+		
+		// Update time
+		this.scannerProcessTime = System.currentTimeMillis();
+		
+		// Reset list of tokens
+		nonErrorToken.clear();
+		errorToken.clear();
+		
+		// Scan edit
+		ABIncrementalScanner incrementalScanner = new ABIncrementalScanner(model.getLexer());
+		incrementalScanner.setCoalesceInvalidChars(errorPolicy.isCoalesceInvalidChars());
+		List<ABToken> tokens = incrementalScanner.scan(text, offset, removedLength, insertedText, previousTokens);
+		
+		// Store tokens
+		addTokens(tokens);
+		
+		// Store scanner time
+		this.scannerProcessTime = System.currentTimeMillis() - this.scannerProcessTime;
+		return tokens;
+	}
+	
+	/**
+	 * Scan a stream through a fixed size buffer
+	 * Tokens are pulled from the returned cursor instead of being stored in the lists
+	 * @param reader
+	 * @return cursor on the tokens
+	 */
+	public ABScannerCursor stream(Reader reader) {
+		return stream(reader, ABScannerCursor.DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Scan a stream through a fixed size buffer
+	 * @param reader
+	 * @param bufferSize
+	 * @return cursor on the tokens
+	 */
+	public ABScannerCursor stream(Reader reader, int bufferSize) {
+		ABScannerCursor cursor = new ABScannerCursor(model.getLexer(), reader, bufferSize);
+		cursor.setErrorPolicy(errorPolicy);
+		return cursor;
+	}
+	
+	/**
+	 * Scan a channel through a fixed size buffer
+	 * @param channel
+	 * @param charset
+	 * @return cursor on the tokens
+	 */
+	public ABScannerCursor stream(ReadableByteChannel channel, Charset charset) {
+		return stream(Channels.newReader(channel, charset.newDecoder(), ABScannerCursor.DEFAULT_BUFFER_SIZE));
+	}
+	
+	/**
+	 * Scan an ASCII or UTF-8 file mapped in memory
+	 * The bytes are decoded through a fixed size buffer, so the file is never copied in a String
+	 * @param path
+	 * @return cursor on the tokens
+	 * @throws IOException
+	 */
+	public ABScannerCursor stream(Path path) throws IOException {
+		return stream(new ABMappedFileReader(path));
+	}
+	
+	/**
+	 * Scan a stream for the parser
+	 * Comments are skipped and tokens are scanned when the parser pulls them
+	 * @param reader
+	 * @return parser tokens
+	 */
+	public ABParserTokenSource parserTokens(Reader reader) {
+		return new ABParserTokenSource(stream(reader));
+	}
+	
+	/**
+	 * Process a full file line by line
+	 * Reference implementation of {@link #processText(String)}
+	 * @param text
+	 */
+	public void processTextByLine(String text) {
+		
+		// Update time
+		this.scannerProcessTime = System.currentTimeMillis();
+		
 		// Reset row count
 		this.line = 0;
 		
@@ -116,8 +286,9 @@ public class ABScanner {
 		// Append EOL or EOF
 		code += scan.hasNextLine() ? ABTableModel.EOL_CHAR : ABTableModel.EOF_CHAR;
 		
-		// Log
-		l.info("> Scanning line: %s", code.replace(String.format("%c", ABTableModel.EOL_CHAR), "\\n").replace(String.format("%c", ABTableModel.EOF_CHAR), "EOF"));
+		// Trace
+		if(trace)
+			l.trace("> Scanning line: %s", code.replace(String.format("%c", ABTableModel.EOL_CHAR), "\\n").replace(String.format("%c", ABTableModel.EOF_CHAR), "EOF"));
 		
 		// Store line
 		this.currentLine = code;
@@ -135,23 +306,46 @@ public class ABScanner {
 			ABToken token = nextToken();
 			
 			// If token found
-			if(token != null) {
-				
-				// Log
-				l.info("%s : %s", token.getValue(), token.getToken());
-				
-				// If error token, store it in error list
-				if(token.getToken().startsWith(ABTokenHelper.ERROR_TOKEN_PREFIX))
-					errorToken.add(token);
-				
-				// If not error token, store it in non error list
-				else
-					nonErrorToken.add(token);
-					
+			if(token != null)
+				addToken(token);
+		}
+	}
+	
+	/**
+	 * Store tokens in scan order until the error budget is used
+	 * @param tokens
+	 */
+	private void addTokens(List<ABToken> tokens) {
+		for(ABToken token : tokens) {
+			
+			// If over the error budget, stop with a summary at the error
+			if(token.isError() && errorToken.size() == errorPolicy.getMaxErrors()) {
+				addToken(errorPolicy.createSummary(token.getRow(), token.getCol()));
+				return;
 			}
+			addToken(token);
 		}
 	}
 	
+	/**
+	 * Store a token in the error or non error list
+	 * @param token
+	 */
+	private void addToken(ABToken token) {
+		
+		// Trace
+		if(trace)
+			l.trace("%s : %s", token.getValue(), token.getToken());
+		
+		// If error token, store it in error list
+		if(token.isError())
+			errorToken.add(token);
+		
+		// If not error token, store it in non error list
+		else
+			nonErrorToken.add(token);
+	}
+	
 	/**
 	 * Get next token
 	 * @return next token
@@ -174,14 +368,11 @@ public class ABScanner {
 			// Update state
 			state = model.lookup(state, currentChar);
 			
-			// Fetch new state
-			State currentState = model.getStateAtRow(state);
-			
 			// If final
-			if(currentState.isFinal()) {
+			if(model.isFinal(state)) {
 				
 				// If should backup, then backup one char
-				if(currentState.getBacktrack()) {
+				if(model.isBacktrack(state)) {
 					backupChar();
 					
 				// If should not backup, then the character is part of the token value
@@ -190,7 +381,7 @@ public class ABScanner {
 				}
 				
 				// Token value
-				String tokenValue = IdentifierHelper.getTokenIfReservedWord(word, currentState.getToken());
+				String tokenValue = IdentifierHelper.getTokenIfReservedWord(word, model.getToken(state));
 				
 				// Create token
 				token = new ABToken(tokenValue, word, wordRow, wordCol);
@@ -224,6 +415,30 @@ public class ABScanner {
 		index--;
 	}
 	
+	/**
+	 * Get the read-only lexer, which can be shared by scans on other threads
+	 * @return lexer
+	 */
+	public CompiledLexer getLexer() {
+		return model.getLexer();
+	}
+	
+	/**
+	 * Set how errors are reported by the next scans
+	 * @param errorPolicy
+	 */
+	public void setErrorPolicy(ABScannerErrorPolicy errorPolicy) {
+		this.errorPolicy = errorPolicy;
+	}
+	
+	/**
+	 * Get how errors are reported
+	 * @return error policy
+	 */
+	public ABScannerErrorPolicy getErrorPolicy() {
+		return errorPolicy;
+	}
+	
 	/**
 	 * Get error tokens
 	 * @return error token
@@ -258,7 +473,7 @@ public class ABScanner {
 		
 		// Add rows
 		for(int row = 1; row < table.length; row++)
-			table[row][0] = model.getStateAtRow(row-1).getVID();
+			table[row][0] = row-1;
 		
 		for(int row = 1; row < table.length; row++) {
 			for(int col = 1; col < table[row].length - 3; col++) {
@@ -266,9 +481,9 @@ public class ABScanner {
 			}
 		
 			// Add extra columns
-			table[row][table[row].length-3] = model.getStateAtRow(row-1).getBacktrack() ? "yes" : "no";
-			table[row][table[row].length-2] = model.getStateAtRow(row-1).isFinal() ? "yes" : "no";
-			table[row][table[row].length-1] = model.getStateAtRow(row-1).isFinal() ? model.getStateAtRow(row-1).getToken() : "";
+			table[row][table[row].length-3] = model.isBacktrack(row-1) ? "yes" : "no";
+			table[row][table[row].length-2] = model.isFinal(row-1) ? "yes" : "no";
+			table[row][table[row].length-1] = model.isFinal(row-1) ? model.getToken(row-1) : "";
 		}
 		
 		return table;
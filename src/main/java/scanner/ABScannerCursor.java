@@ -0,0 +1,529 @@
+package scanner;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import scanner.helper.ABTokenKind;
+import scanner.helper.IdentifierHelper;
+import scanner.helper.IdentifierHelper.ReservedWords;
+
+public class ABScannerCursor implements TokenSource, Iterator<ABToken>, Closeable {
+	
+	// Components, shared with other cursors
+	private final CompiledLexer lexer;
+	
+	// Source buffer, line terminators are replaced by EOL and EOF is appended
+	private char[] buffer;
+	private int limit;
+	
+	// Position in buffer and start of the current token
+	private int pos, tokenStart;
+	
+	// No token starts at or after this position
+	private int tokenLimit = Integer.MAX_VALUE;
+	
+	// Current line and offset where it starts
+	private int line, lineStart, previousLineStart;
+	
+	// Token row and column
+	private int tokenRow, tokenCol;
+	
+	// State, and final state of the last token
+	private int state, finalState;
+	
+	// Reserved word of the last token, null if not a reserved word
+	private ReservedWords reservedWord;
+	
+	// Streamed input, null if the whole text is in the buffer
+	private Reader reader;
+	private char[] raw;
+	private int rawPos, rawLimit;
+	private boolean rawEnd, readAnyChar, readEOF;
+	
+	// Beginning of a token that did not fit in the buffer
+	private StringBuilder overflow;
+	
+	// Token returned by next()
+	private ABToken nextToken;
+	
+	// Error reporting, number of error tokens and if the budget stopped the scan
+	private ABScannerErrorPolicy errorPolicy = ABScannerErrorPolicy.KEEP_ALL;
+	private int errors;
+	private boolean aborted;
+	
+	// Default buffer size when streaming
+	public static final int DEFAULT_BUFFER_SIZE = 8192;
+	
+	// Shared single char lexemes
+	private static final String[] ASCII_LEXEMES = new String[128];
+	
+	static {
+		for(int c = 0; c < ASCII_LEXEMES.length; c++)
+			ASCII_LEXEMES[c] = String.valueOf((char) c).intern();
+	}
+	
+	/**
+	 * Create cursor on a text
+	 * @param model
+	 * @param text
+	 */
+	public ABScannerCursor(ABTableModel model, CharSequence text) {
+		this(model.getLexer(), text);
+	}
+	
+	/**
+	 * Create cursor on a text
+	 * @param lexer
+	 * @param text
+	 */
+	public ABScannerCursor(CompiledLexer lexer, CharSequence text) {
+		this.lexer = lexer;
+		this.buffer = new char[text.length() + 1];
+		this.line = 1;
+		
+		// Copy text
+		for(int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			
+			// If line terminator
+			if(isLineTerminator(c)) {
+				
+				// \r\n is one terminator
+				if(c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n')
+					i++;
+				
+				// The last terminator is replaced by EOF
+				if(i + 1 == text.length())
+					break;
+				
+				c = ABTableModel.EOL_CHAR;
+			}
+			buffer[limit++] = c;
+		}
+		
+		// Append EOF if there is at least one line
+		if(text.length() > 0)
+			buffer[limit++] = ABTableModel.EOF_CHAR;
+	}
+	
+	/**
+	 * Create cursor on a part of a text already in the buffer
+	 * The token started before tokenLimit is completed even if it ends after it
+	 * @param lexer
+	 * @param buffer
+	 * @param limit
+	 * @param start
+	 * @param tokenLimit
+	 * @param line
+	 * @param lineStart
+	 */
+	ABScannerCursor(CompiledLexer lexer, char[] buffer, int limit, int start, int tokenLimit, int line, int lineStart) {
+		this.lexer = lexer;
+		this.buffer = buffer;
+		this.limit = limit;
+		this.pos = start;
+		this.tokenLimit = tokenLimit;
+		this.line = line;
+		this.lineStart = lineStart;
+	}
+	
+	/**
+	 * Create cursor reading from a stream through a fixed size buffer
+	 * @param model
+	 * @param reader
+	 * @param bufferSize
+	 */
+	public ABScannerCursor(ABTableModel model, Reader reader, int bufferSize) {
+		this(model.getLexer(), reader, bufferSize);
+	}
+	
+	/**
+	 * Create cursor reading from a stream through a fixed size buffer
+	 * @param lexer
+	 * @param reader
+	 * @param bufferSize
+	 */
+	public ABScannerCursor(CompiledLexer lexer, Reader reader, int bufferSize) {
+		if(bufferSize < 1)
+			throw new IllegalArgumentException("Buffer size must be positive");
+		
+		this.lexer = lexer;
+		this.reader = reader;
+		this.buffer = new char[bufferSize];
+		this.raw = new char[bufferSize];
+		this.overflow = new StringBuilder();
+		this.line = 1;
+	}
+	
+	/**
+	 * Get next token
+	 * @return next token or null if no more tokens
+	 */
+	@Override
+	public ABToken nextToken() {
+		if(aborted)
+			return null;
+		
+		int kind = nextKind();
+		if(kind < 0)
+			return null;
+		
+		// If over the error budget, stop with a summary at the error
+		if(ABTokenKind.isError(kind) && errors++ == errorPolicy.getMaxErrors()) {
+			aborted = true;
+			return errorPolicy.createSummary(tokenRow, tokenCol);
+		}
+		
+		// Reserved words share their value
+		if(reservedWord != null)
+			return new ABToken(kind, reservedWord.getMatch(), tokenRow, tokenCol);
+		
+		// If the identifier did not fit in the buffer, check if reserved word after creating the value
+		String value = lexeme(tokenStart, pos);
+		if(lexer.isIdentifier(finalState) && value.length() > pos - tokenStart)
+			return new ABToken(IdentifierHelper.getTokenIfReservedWord(value, lexer.getToken(finalState)), value, tokenRow, tokenCol);
+		return new ABToken(kind, value, tokenRow, tokenCol);
+	}
+	
+	/**
+	 * Scan next token without creating its value
+	 * The token is from getTokenStart() to getPosition() in the buffer
+	 * @return token kind id or -1 if no more tokens
+	 */
+	int nextKind() {
+		
+		while(pos < limit || fill()) {
+			
+			// If initial state
+			if(state == 0) {
+				if(pos >= tokenLimit)
+					return -1;
+				tokenStart = pos;
+				tokenRow = line;
+				tokenCol = pos - lineStart + 1;
+			}
+			
+			// Current char
+			char currentChar = nextChar();
+			
+			// Update state
+			state = lexer.lookup(state, currentChar);
+			
+			// If final
+			if(lexer.isFinal(state)) {
+				
+				// If should backup, then backup one char
+				if(lexer.isBacktrack(state))
+					backupChar();
+				
+				// If single invalid char, add the following ones to the token
+				else if(errorPolicy.isCoalesceInvalidChars() && pos == tokenStart + 1 && lexer.isError(state))
+					while((pos < limit || fill()) && lexer.lookup(0, buffer[pos]) == state)
+						nextChar();
+				
+				// If identifier, check if reserved word without creating the value
+				int kind = lexer.getKind(state);
+				reservedWord = null;
+				if(lexer.isIdentifier(state) && (overflow == null || overflow.length() == 0)) {
+					reservedWord = IdentifierHelper.getReservedWord(buffer, tokenStart, pos);
+					if(reservedWord != null)
+						kind = reservedWord.getKind();
+				}
+				
+				// Go to initial state
+				finalState = state;
+				state = 0;
+				return kind;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Set how errors are reported, before the first token
+	 * @param errorPolicy
+	 */
+	public void setErrorPolicy(ABScannerErrorPolicy errorPolicy) {
+		this.errorPolicy = errorPolicy;
+	}
+	
+	/**
+	 * Check if the error budget stopped the scan
+	 * @return true if stopped before the end of the text
+	 */
+	public boolean isAborted() {
+		return aborted;
+	}
+	
+	/**
+	 * Check if there are more tokens
+	 * @return true if next() has a token
+	 */
+	@Override
+	public boolean hasNext() {
+		if(nextToken == null)
+			nextToken = nextToken();
+		return nextToken != null;
+	}
+	
+	/**
+	 * Get next token
+	 * @return next token
+	 */
+	@Override
+	public ABToken next() {
+		if(!hasNext())
+			throw new NoSuchElementException();
+		ABToken token = nextToken;
+		nextToken = null;
+		return token;
+	}
+	
+	/**
+	 * Close the streamed input
+	 */
+	@Override
+	public void close() throws IOException {
+		if(reader != null)
+			reader.close();
+	}
+	
+	/**
+	 * Get buffer, line terminators are replaced by EOL and EOF is appended
+	 * @return buffer
+	 */
+	char[] getBuffer() {
+		return buffer;
+	}
+	
+	/**
+	 * Get number of chars in the buffer
+	 * @return limit
+	 */
+	int getLimit() {
+		return limit;
+	}
+	
+	/**
+	 * Get position in the buffer
+	 * @return position
+	 */
+	int getPosition() {
+		return pos;
+	}
+	
+	/**
+	 * Get start of the last token
+	 * @return token start
+	 */
+	int getTokenStart() {
+		return tokenStart;
+	}
+	
+	/**
+	 * Get row of the last token
+	 * @return token row
+	 */
+	int getTokenRow() {
+		return tokenRow;
+	}
+	
+	/**
+	 * Get column of the last token
+	 * @return token column
+	 */
+	int getTokenCol() {
+		return tokenCol;
+	}
+	
+	/**
+	 * Get current line
+	 * @return line
+	 */
+	int getLine() {
+		return line;
+	}
+	
+	/**
+	 * Get offset where the current line starts
+	 * @return line start
+	 */
+	int getLineStart() {
+		return lineStart;
+	}
+	
+	/**
+	 * Get next char
+	 * @return next char
+	 */
+	private char nextChar() {
+		char c = buffer[pos++];
+		
+		// If new line
+		if(c == ABTableModel.EOL_CHAR) {
+			previousLineStart = lineStart;
+			lineStart = pos;
+			line++;
+		}
+		return c;
+	}
+	
+	/**
+	 * Backup one char
+	 */
+	private void backupChar() {
+		
+		// If backing up a new line
+		if(buffer[--pos] == ABTableModel.EOL_CHAR) {
+			lineStart = previousLineStart;
+			line--;
+		}
+	}
+	
+	/**
+	 * Create the value of a token
+	 * @param start
+	 * @param end
+	 * @return value
+	 */
+	private String lexeme(int start, int end) {
+		
+		// If the beginning of the token was moved out of the buffer
+		if(overflow != null && overflow.length() > 0) {
+			String value = overflow.append(buffer, start, end - start).toString();
+			overflow.setLength(0);
+			return value;
+		}
+		
+		return lexeme(buffer, start, end);
+	}
+	
+	/**
+	 * Create the value of a token in a buffer
+	 * @param buffer
+	 * @param start
+	 * @param end
+	 * @return value
+	 */
+	static String lexeme(char[] buffer, int start, int end) {
+		
+		// Single ASCII chars are shared
+		if(end - start == 1 && buffer[start] < ASCII_LEXEMES.length)
+			return ASCII_LEXEMES[buffer[start]];
+		return new String(buffer, start, end - start);
+	}
+	
+	/**
+	 * Move the current token to the beginning of the buffer and read more input
+	 * @return true if more chars were read
+	 */
+	private boolean fill() {
+		
+		// If whole text is in the buffer
+		if(reader == null)
+			return false;
+		
+		// Keep the current token
+		int keep = state == 0 ? pos : tokenStart;
+		
+		// If the token fills the buffer, move it out
+		if(keep == 0 && limit == buffer.length) {
+			overflow.append(buffer, 0, limit);
+			keep = limit;
+		}
+		
+		// Shift buffer
+		System.arraycopy(buffer, keep, buffer, 0, limit - keep);
+		limit -= keep;
+		pos -= keep;
+		tokenStart = Math.max(0, tokenStart - keep);
+		lineStart -= keep;
+		previousLineStart -= keep;
+		
+		// Read normalized chars
+		int c;
+		while(limit < buffer.length && (c = readChar()) >= 0)
+			buffer[limit++] = (char) c;
+		return pos < limit;
+	}
+	
+	/**
+	 * Read a char from the stream, line terminators are replaced by EOL and EOF is appended
+	 * @return char or -1 if end of stream
+	 */
+	private int readChar() {
+		
+		// If end of stream
+		int c = readRawChar();
+		if(c < 0) {
+			if(readAnyChar && !readEOF) {
+				readEOF = true;
+				return ABTableModel.EOF_CHAR;
+			}
+			return -1;
+		}
+		readAnyChar = true;
+		
+		// If line terminator
+		if(isLineTerminator((char) c)) {
+			
+			// \r\n is one terminator
+			if(c == '\r' && peekRawChar() == '\n')
+				readRawChar();
+			
+			// The last terminator is replaced by EOF
+			if(peekRawChar() < 0) {
+				readEOF = true;
+				return ABTableModel.EOF_CHAR;
+			}
+			return ABTableModel.EOL_CHAR;
+		}
+		return c;
+	}
+	
+	/**
+	 * Read a char from the stream
+	 * @return char or -1 if end of stream
+	 */
+	private int readRawChar() {
+		int c = peekRawChar();
+		if(c >= 0)
+			rawPos++;
+		return c;
+	}
+	
+	/**
+	 * Peek a char from the stream
+	 * @return char or -1 if end of stream
+	 */
+	private int peekRawChar() {
+		try {
+			while(rawPos == rawLimit) {
+				if(rawEnd)
+					return -1;
+				
+				// Read more
+				int read = reader.read(raw, 0, raw.length);
+				rawPos = 0;
+				rawLimit = Math.max(0, read);
+				rawEnd = read < 0;
+			}
+			return raw[rawPos];
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Check if a char ends a line
+	 * @param c
+	 * @return true if line terminator
+	 */
+	public static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+	}
+}
@@ -0,0 +1,71 @@
+package scanner;
+
+import scanner.helper.ABTokenHelper;
+
+/**
+ * How the scanner reports errors
+ * Consecutive invalid chars can be reported as one error token, and scanning can stop after a number of
+ * error tokens, with a last error token that tells where it stopped. Both keep a wrong input, e.g. a binary
+ * file, from creating millions of error tokens.
+ */
+public class ABScannerErrorPolicy {
+	
+	// Report consecutive chars that are each an error token from the initial state as one token
+	private final boolean coalesceInvalidChars;
+	
+	// Error tokens reported before scanning stops
+	private final int maxErrors;
+	
+	// No limit
+	public static final int NO_LIMIT = Integer.MAX_VALUE;
+	
+	// Default budget
+	public static final int DEFAULT_MAX_ERRORS = 1000;
+	
+	// Every error is reported, each invalid char is its own token
+	public static final ABScannerErrorPolicy KEEP_ALL = new ABScannerErrorPolicy(false, NO_LIMIT);
+	
+	// Invalid chars are coalesced, every error is reported
+	public static final ABScannerErrorPolicy COALESCE = new ABScannerErrorPolicy(true, NO_LIMIT);
+	
+	// Invalid chars are coalesced and scanning stops after the default budget
+	public static final ABScannerErrorPolicy DEFAULT = new ABScannerErrorPolicy(true, DEFAULT_MAX_ERRORS);
+	
+	/**
+	 * Create policy
+	 * @param coalesceInvalidChars
+	 * @param maxErrors error tokens reported before scanning stops
+	 */
+	public ABScannerErrorPolicy(boolean coalesceInvalidChars, int maxErrors) {
+		if(maxErrors < 0)
+			throw new IllegalArgumentException("Maximum number of errors cannot be negative");
+		this.coalesceInvalidChars = coalesceInvalidChars;
+		this.maxErrors = maxErrors;
+	}
+	
+	/**
+	 * Check if consecutive invalid chars are one token
+	 * @return true if coalesced
+	 */
+	public boolean isCoalesceInvalidChars() {
+		return coalesceInvalidChars;
+	}
+	
+	/**
+	 * Get number of error tokens reported before scanning stops
+	 * @return max errors
+	 */
+	public int getMaxErrors() {
+		return maxErrors;
+	}
+	
+	/**
+	 * Create the token that ends a scan stopped by the budget
+	 * @param row where scanning stopped
+	 * @param col where scanning stopped
+	 * @return error token, its value is the budget
+	 */
+	public ABToken createSummary(int row, int col) {
+		return new ABToken(ABTokenHelper.T_ERR_TOO_MANY_ERRORS, String.valueOf(maxErrors), row, col);
+	}
+}
@@ -13,6 +13,13 @@ public class ABTableModel {
 	private State[] states;
 	private char[] header;
 	
+	// State information
+	private boolean[] finalStates, backtrackStates;
+	private String[] stateTokens;
+	
+	// Compiled table shared by the scans
+	private CompiledLexer lexer;
+	
 	public static final char 	OTHER = 'O', 
 								NON_ZERO = 'N', // 1-9
 								SPACE = 'S',
@@ -22,6 +29,9 @@ public class ABTableModel {
 	
 	public static final char	EOL_CHAR = '\n',
 								EOF_CHAR = '\0';
+	
+	// Number of chars resolved in the compiled char class table, others are treated as OTHER
+	public static final int CHAR_CLASS_SIZE = 256;
 
 	
 	// Header map
@@ -38,6 +48,43 @@ public class ABTableModel {
 			headerMap.put(header[col], col);
 		
 		populateTable();
+		
+		// Cache state information
+		finalStates = new boolean[states.length];
+		backtrackStates = new boolean[states.length];
+		stateTokens = new String[states.length];
+		for(int row = 0; row < states.length; row++) {
+			finalStates[row] = states[row].isFinal();
+			backtrackStates[row] = states[row].getBacktrack();
+			stateTokens[row] = states[row].getToken();
+		}
+		
+		// Resolve the columns once
+		compileTable();
+	}
+	
+	/**
+	 * Create table from its content, without the machine states
+	 * @param header
+	 * @param table
+	 * @param finalStates
+	 * @param backtrackStates
+	 * @param stateTokens
+	 */
+	ABTableModel(char[] header, int[][] table, boolean[] finalStates, boolean[] backtrackStates, String[] stateTokens) {
+		this.table = table;
+		this.header = header;
+		this.finalStates = finalStates;
+		this.backtrackStates = backtrackStates;
+		this.stateTokens = stateTokens;
+		this.headerMap = new HashMap<>();
+		
+		// Store header in map
+		for(int col=0; col<header.length; col++)
+			headerMap.put(header[col], col);
+		
+		// Resolve the columns once
+		compileTable();
 	}
 	
 	/**
@@ -53,10 +100,10 @@ public class ABTableModel {
 	/**
 	 * Get state at row
 	 * @param row
-	 * @return State
+	 * @return State or null if the table was not created from the machine states
 	 */
 	public State getStateAtRow(int row) {
-		return states[row];
+		return states == null ? null : states[row];
 	}
 	
 	/**
@@ -81,16 +128,43 @@ public class ABTableModel {
 	 * @return table height
 	 */
 	public int getNumOfRow() {
-		return states.length;
+		return table.length;
+	}
+	
+	/**
+	 * Get number of entries in the table
+	 * @return rows * columns
+	 */
+	public int getTableSize() {
+		return table.length * header.length;
 	}
 	
 	/**
-	 * Look up next state
+	 * Look up next state using the compiled table
 	 * @param state
 	 * @param c
 	 * @return state index
 	 */
 	public int lookup(int state, char c) {
+		return lexer.lookup(state, c);
+	}
+	
+	/**
+	 * Get the read-only lexer compiled from this table
+	 * @return lexer
+	 */
+	public CompiledLexer getLexer() {
+		return lexer;
+	}
+	
+	/**
+	 * Look up next state by checking the char ranges and the header.
+	 * Reference implementation of {@link #lookup(int, char)}
+	 * @param state
+	 * @param c
+	 * @return state index
+	 */
+	public int lookupReference(int state, char c) {
 		
 		// a-zA-Z
 		if( (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))
@@ -155,6 +229,98 @@ public class ABTableModel {
 		}
 	}
 	
+	/**
+	 * Compile the table so that a lookup costs two array loads
+	 */
+	private void compileTable() {
+		int numOfCol = header.length;
+		
+		// Resolve the column of each char
+		int[] charClass = new int[CHAR_CLASS_SIZE];
+		for(int c = 0; c < CHAR_CLASS_SIZE; c++)
+			charClass[c] = getColOf((char) c);
+		
+		// Flatten transitions
+		int[] flatTable = new int[table.length * numOfCol];
+		for(int row = 0; row < table.length; row++)
+			System.arraycopy(table[row], 0, flatTable, row * numOfCol, numOfCol);
+		
+		// The lexer gets its own copy of the state information
+		lexer = new CompiledLexer(charClass, flatTable, numOfCol, headerMap.get(OTHER), finalStates.clone(), backtrackStates.clone(), stateTokens.clone());
+	}
+	
+	/**
+	 * Get the column used when reading a char
+	 * @param c
+	 * @return column index
+	 */
+	private int getColOf(char c) {
+		
+		// a-zA-Z
+		if( (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z'))
+			return headerMap.get(LETTER);
+		
+		// 1-9
+		if(c >= '1' && c <= '9')
+			return headerMap.get(NON_ZERO);
+		
+		// Space
+		if(c == ' ' || c == '\t')
+			return headerMap.get(SPACE);
+		
+		// New line character
+		if(c == EOL_CHAR)
+			return headerMap.get(EOL);
+		
+		// End of file character
+		if(c == EOF_CHAR)
+			return headerMap.get(EOF);
+		
+		// Other characters
+		for(int col=0; col<header.length; col++)
+			if(c == header[col])
+				return col;
+		
+		// Other ASCII
+		return headerMap.get(OTHER);
+	}
+	
+	/**
+	 * Check if a state is final
+	 * @param state
+	 * @return true if final
+	 */
+	public boolean isFinal(int state) {
+		return finalStates[state];
+	}
+	
+	/**
+	 * Check if a state should backtrack one char
+	 * @param state
+	 * @return true if backtrack
+	 */
+	public boolean isBacktrack(int state) {
+		return backtrackStates[state];
+	}
+	
+	/**
+	 * Check if a state is final for an identifier, which can be a reserved word
+	 * @param state
+	 * @return true if identifier
+	 */
+	public boolean isIdentifier(int state) {
+		return lexer.isIdentifier(state);
+	}
+	
+	/**
+	 * Get the token of a state
+	 * @param state
+	 * @return token or null if not final
+	 */
+	public String getToken(int state) {
+		return stateTokens[state];
+	}
+	
 	/**
 	 * Formatted table
 	 */
@@ -168,15 +334,15 @@ public class ABTableModel {
 		output += "Final [token]";
 		
 		output += "\n";
-		for(int row = 0; row < states.length; row++) {
+		for(int row = 0; row < table.length; row++) {
 			output += row + "\t";
 			for(int col = 0; col < header.length; col++) {
 				output += table[row][col] + "\t";
 			}
-			output += (states[row].getBacktrack() ? "yes" : "no") + "\t";
+			output += (backtrackStates[row] ? "yes" : "no") + "\t";
 			
-			if(states[row].isFinal())
-				output += "yes [" + states[row].getToken() +"]";
+			if(finalStates[row])
+				output += "yes [" + stateTokens[row] +"]";
 			else
 				output += "no";
 			
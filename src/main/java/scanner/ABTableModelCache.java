@@ -0,0 +1,265 @@
+package scanner;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import finiteAutomata.FiniteAutomata;
+
+/**
+ * Binary copy of a scanner table, stored next to the .dfa or .spec file
+ * The cache holds the hash of the file and is ignored when the file changes.
+ */
+public class ABTableModelCache {
+	
+	// Logger
+	private static Logger l = LogManager.getFormatterLogger(ABTableModelCache.class);
+	
+	// Cache file extension, appended to the .dfa file name
+	public static final String EXTENSION = ".bin";
+	public static final String MINIMIZED_EXTENSION = ".min";
+	
+	// Format
+	private static final int MAGIC = 0x41424446;
+	private static final int VERSION = 2;
+	private static final String HASH_ALGORITHM = "SHA-256";
+	
+	// State flags
+	private static final int FINAL = 1, BACKTRACK = 2;
+	
+	/**
+	 * Load a scanner table from its cache, or parse the .dfa file and create the cache
+	 * @param dfaFile
+	 * @return table
+	 * @throws IOException
+	 */
+	public static ABTableModel load(String dfaFile) throws IOException {
+		return load(dfaFile, false);
+	}
+	
+	/**
+	 * Load a scanner table from its cache, or parse the .dfa file and create the cache
+	 * The minimized table has its own cache
+	 * @param dfaFile
+	 * @param minimize build the table from the minimized machine
+	 * @return table
+	 * @throws IOException
+	 */
+	public static ABTableModel load(String dfaFile, boolean minimize) throws IOException {
+		
+		// Hash the machine
+		URL url = ABTableModelCache.class.getResource(dfaFile);
+		if(url == null)
+			throw new FileNotFoundException(dfaFile);
+		byte[] hash;
+		try(InputStream in = url.openStream()) {
+			hash = hash(IOUtils.toByteArray(in));
+		}
+		
+		// If the cache exists and matches the machine
+		String extension = minimize ? MINIMIZED_EXTENSION + EXTENSION : EXTENSION;
+		URL cacheUrl = ABTableModelCache.class.getResource(dfaFile + extension);
+		if(cacheUrl != null) {
+			try(InputStream in = cacheUrl.openStream()) {
+				ABTableModel model = read(in, hash);
+				if(model != null)
+					return model;
+			} catch (IOException e) {
+				l.warn("Cannot read scanner table cache: %s", e.getMessage());
+			}
+		}
+		
+		// Parse the machine
+		ABTableModel model = parse(dfaFile, minimize);
+		
+		// Store the cache next to the machine if it is a file
+		if(url.getProtocol().equals("file")) {
+			try {
+				write(model, hash, Paths.get(url.toURI()).resolveSibling(Paths.get(url.toURI()).getFileName() + extension));
+			} catch (IOException | URISyntaxException e) {
+				l.warn("Cannot cache scanner table: %s", e.getMessage());
+			}
+		}
+		return model;
+	}
+	
+	/**
+	 * Parse a .dfa or .spec file
+	 * @param dfaFile
+	 * @return table
+	 * @throws IOException
+	 */
+	public static ABTableModel parse(String dfaFile) throws IOException {
+		return parse(dfaFile, false);
+	}
+	
+	/**
+	 * Parse a .dfa or .spec file
+	 * @param dfaFile
+	 * @param minimize build the table from the minimized machine
+	 * @return table
+	 * @throws IOException
+	 */
+	public static ABTableModel parse(String dfaFile, boolean minimize) throws IOException {
+		
+		// Lexical specs are always minimized
+		if(dfaFile.endsWith(ABLexicalSpec.EXTENSION))
+			return ABLexicalSpec.parse(dfaFile).toTableModel();
+		
+		FiniteAutomata machine = FiniteAutomata.inParser(dfaFile);
+		
+		// The table needs one transition per label. Minimizing merges the sets equal to the
+		// initial state back into it, since the scanner starts a token at the initial state
+		if(machine.hasLambdaTransitions())
+			machine = machine.toDFA().minimize();
+		ABTableModel model = new ABTableModel(machine.getStates(), machine.getAllTransitionLabels());
+		if(!minimize)
+			return model;
+		
+		// Report the size before and after minimization
+		FiniteAutomata minimized = machine.minimize();
+		ABTableModel minimizedModel = new ABTableModel(minimized.getStates(), minimized.getAllTransitionLabels());
+		l.info("Minimized %s: %d -> %d states, %d -> %d table entries", dfaFile, model.getNumOfRow(), minimizedModel.getNumOfRow(), model.getTableSize(), minimizedModel.getTableSize());
+		return minimizedModel;
+	}
+	
+	/**
+	 * Write a table
+	 * @param model
+	 * @param hash hash of the .dfa file
+	 * @param path
+	 * @throws IOException
+	 */
+	public static void write(ABTableModel model, byte[] hash, Path path) throws IOException {
+		
+		// Write a temporary file then replace the cache, so readers never see a partial file
+		Path temp = path.resolveSibling(path.getFileName() + "." + Long.toHexString(System.nanoTime()) + ".tmp");
+		try {
+			try(OutputStream out = Files.newOutputStream(temp)) {
+				write(model, hash, out);
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+	
+	/**
+	 * Write a table
+	 * @param model
+	 * @param hash hash of the .dfa file
+	 * @param stream
+	 * @throws IOException
+	 */
+	public static void write(ABTableModel model, byte[] hash, OutputStream stream) throws IOException {
+		DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream));
+		
+		// Header
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeShort(hash.length);
+		out.write(hash);
+		
+		// Columns, the sizes and states are ints so large tables are not truncated
+		out.writeInt(model.getNumOfRow());
+		out.writeInt(model.getNumOfCol());
+		for(int col = 0; col < model.getNumOfCol(); col++)
+			out.writeChar(model.getCharAtCol(col));
+		
+		// Rows
+		for(int row = 0; row < model.getNumOfRow(); row++) {
+			for(int col = 0; col < model.getNumOfCol(); col++)
+				out.writeInt(model.getAt(row, col));
+			out.writeByte((model.isFinal(row) ? FINAL : 0) | (model.isBacktrack(row) ? BACKTRACK : 0));
+			if(model.isFinal(row))
+				out.writeUTF(model.getToken(row));
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Read a table
+	 * @param stream
+	 * @param hash expected hash of the .dfa file
+	 * @return table or null if the cache does not match the hash or the format
+	 * @throws IOException
+	 */
+	public static ABTableModel read(InputStream stream, byte[] hash) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(stream));
+		
+		// Header
+		if(in.readInt() != MAGIC || in.readInt() != VERSION)
+			return null;
+		byte[] cacheHash = new byte[in.readUnsignedShort()];
+		in.readFully(cacheHash);
+		if(!Arrays.equals(hash, cacheHash))
+			return null;
+		
+		// Columns
+		int rows = in.readInt();
+		char[] header = new char[in.readInt()];
+		for(int col = 0; col < header.length; col++)
+			header[col] = in.readChar();
+		
+		// Rows
+		int[][] table = new int[rows][header.length];
+		boolean[] finalStates = new boolean[rows], backtrackStates = new boolean[rows];
+		String[] stateTokens = new String[rows];
+		for(int row = 0; row < rows; row++) {
+			for(int col = 0; col < header.length; col++)
+				table[row][col] = in.readInt();
+			int flags = in.readByte();
+			finalStates[row] = (flags & FINAL) != 0;
+			backtrackStates[row] = (flags & BACKTRACK) != 0;
+			if(finalStates[row])
+				stateTokens[row] = in.readUTF();
+		}
+		return new ABTableModel(header, table, finalStates, backtrackStates, stateTokens);
+	}
+	
+	/**
+	 * Hash the content of a .dfa file
+	 * @param content
+	 * @return hash
+	 */
+	public static byte[] hash(byte[] content) {
+		try {
+			return MessageDigest.getInstance(HASH_ALGORITHM).digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	/**
+	 * Write the cache of .dfa and .spec files at build time
+	 * @param args pairs of resource and cache file
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws IOException {
+		for(int i = 0; i + 1 < args.length; i += 2) {
+			try(InputStream in = ABTableModelCache.class.getResourceAsStream(args[i])) {
+				if(in == null)
+					throw new FileNotFoundException(args[i]);
+				write(parse(args[i]), hash(IOUtils.toByteArray(in)), Paths.get(args[i + 1]));
+			}
+		}
+	}
+}
@@ -1,12 +1,19 @@
 package scanner;
 
 import scanner.helper.ABTokenHelper;
+import scanner.helper.ABTokenKind;
 
 public class ABToken {
 	private String token;
 	private String value;
 	private int row, col;
 	
+	// Kind id of the token, -1 until needed
+	private int kind = -1;
+	
+	// Kind id of identifiers
+	private static final int IDENTIFIER_KIND = ABTokenKind.id(ABTokenHelper.T_IDENTIFIER);
+	
 	/**
 	 * Create ABToken
 	 * @param token
@@ -21,6 +28,18 @@ public class ABToken {
 		this.col = col;
 	}
 
+	/**
+	 * Create ABToken from a kind id
+	 * @param kind
+	 * @param value
+	 * @param row
+	 * @param col
+	 */
+	public ABToken(int kind, String value, int row, int col) {
+		this(ABTokenKind.name(kind), value, row, col);
+		this.kind = kind;
+	}
+	
 	/**
 	 * Create ABToken
 	 * @param token
@@ -30,6 +49,7 @@ public class ABToken {
 		this.value = token.value;
 		this.row = token.row;
 		this.col = token.col;
+		this.kind = token.kind;
 	}
 
 	/**
@@ -46,6 +66,25 @@ public class ABToken {
 	 */
 	public void setToken(String token) {
 		this.token = token;
+		this.kind = -1;
+	}
+	
+	/**
+	 * Get token kind id
+	 * @return kind
+	 */
+	public int getKind() {
+		if(kind < 0)
+			kind = ABTokenKind.id(token);
+		return kind;
+	}
+	
+	/**
+	 * Check if token is an error token
+	 * @return true if error
+	 */
+	public boolean isError() {
+		return ABTokenKind.isError(getKind());
 	}
 	
 	/**
@@ -101,7 +140,7 @@ public class ABToken {
 	 * @return
      */
 	public boolean isIdentifier() {
-		return getToken().equals(ABTokenHelper.T_IDENTIFIER);
+		return getKind() == IDENTIFIER_KIND;
 	}
 	
 	/**
@@ -0,0 +1,190 @@
+package scanner;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import scanner.helper.ABTokenKind;
+import scanner.helper.IdentifierHelper;
+import scanner.helper.IdentifierHelper.ReservedWords;
+
+/**
+ * Tokens of a text stored in parallel int arrays
+ * A token costs five ints instead of an ABToken and its value String. Values are created from the
+ * scanned text only when asked, and {@link #get(int)} creates an ABToken view for existing code.
+ */
+public class ABTokenBuffer {
+	
+	// Scanned text, line terminators are replaced by EOL and EOF is appended
+	private char[] source;
+	
+	// Token information
+	private int[] kind, start, length, row, col;
+	private int size;
+	
+	// Initial capacity
+	private static final int INITIAL_CAPACITY = 64;
+	
+	/**
+	 * Create an empty buffer on a scanned text
+	 * @param source
+	 */
+	ABTokenBuffer(char[] source) {
+		this.source = source;
+		this.kind = new int[INITIAL_CAPACITY];
+		this.start = new int[INITIAL_CAPACITY];
+		this.length = new int[INITIAL_CAPACITY];
+		this.row = new int[INITIAL_CAPACITY];
+		this.col = new int[INITIAL_CAPACITY];
+	}
+	
+	/**
+	 * Add a token
+	 * @param kind
+	 * @param start
+	 * @param length
+	 * @param row
+	 * @param col
+	 */
+	void add(int kind, int start, int length, int row, int col) {
+		if(size == this.kind.length) {
+			int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+			this.kind = Arrays.copyOf(this.kind, capacity);
+			this.start = Arrays.copyOf(this.start, capacity);
+			this.length = Arrays.copyOf(this.length, capacity);
+			this.row = Arrays.copyOf(this.row, capacity);
+			this.col = Arrays.copyOf(this.col, capacity);
+		}
+		this.kind[size] = kind;
+		this.start[size] = start;
+		this.length[size] = length;
+		this.row[size] = row;
+		this.col[size] = col;
+		size++;
+	}
+	
+	/**
+	 * Drop the unused capacity
+	 */
+	void trim() {
+		kind = Arrays.copyOf(kind, size);
+		start = Arrays.copyOf(start, size);
+		length = Arrays.copyOf(length, size);
+		row = Arrays.copyOf(row, size);
+		col = Arrays.copyOf(col, size);
+	}
+	
+	/**
+	 * Get number of tokens
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+	
+	/**
+	 * Get token kind id
+	 * @param index
+	 * @return kind
+	 */
+	public int getKind(int index) {
+		return kind[index];
+	}
+	
+	/**
+	 * Get token kind, e.g. T_IDENTIFIER
+	 * @param index
+	 * @return token
+	 */
+	public String getToken(int index) {
+		return ABTokenKind.name(kind[index]);
+	}
+	
+	/**
+	 * Check if a token is an error token
+	 * @param index
+	 * @return true if error
+	 */
+	public boolean isError(int index) {
+		return ABTokenKind.isError(kind[index]);
+	}
+	
+	/**
+	 * Get offset of a token in the scanned text
+	 * @param index
+	 * @return start
+	 */
+	public int getStart(int index) {
+		return start[index];
+	}
+	
+	/**
+	 * Get number of chars of a token
+	 * @param index
+	 * @return length
+	 */
+	public int getLength(int index) {
+		return length[index];
+	}
+	
+	/**
+	 * Get row of a token
+	 * @param index
+	 * @return row
+	 */
+	public int getRow(int index) {
+		return row[index];
+	}
+	
+	/**
+	 * Get column of a token
+	 * @param index
+	 * @return col
+	 */
+	public int getCol(int index) {
+		return col[index];
+	}
+	
+	/**
+	 * Get value of a token, created from the scanned text
+	 * @param index
+	 * @return value
+	 */
+	public String getValue(int index) {
+		
+		// Reserved words share their value
+		ReservedWords reservedWord = IdentifierHelper.getReservedWord(source, start[index], start[index] + length[index]);
+		if(reservedWord != null && reservedWord.getKind() == kind[index])
+			return reservedWord.getMatch();
+		return ABScannerCursor.lexeme(source, start[index], start[index] + length[index]);
+	}
+	
+	/**
+	 * Get a token as an ABToken
+	 * @param index
+	 * @return new token
+	 */
+	public ABToken get(int index) {
+		return new ABToken(kind[index], getValue(index), row[index], col[index]);
+	}
+	
+	/**
+	 * Get the tokens as a list of ABToken, created when read
+	 * @return list view
+	 */
+	public List<ABToken> asList() {
+		return new AbstractList<ABToken>() {
+			@Override
+			public ABToken get(int index) {
+				if(index < 0 || index >= size)
+					throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+				return ABTokenBuffer.this.get(index);
+			}
+			
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+}
@@ -0,0 +1,179 @@
+package scanner;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import scanner.helper.ABTokenHelper;
+import scanner.helper.ABTokenKind;
+
+/**
+ * Read-only scanner tables compiled from an {@link ABTableModel}
+ * The lexer has no scanning state and its fields never change, so one instance can be shared by
+ * any number of threads without synchronization. Each scan keeps its own state in an {@link ABScannerCursor}.
+ */
+public final class CompiledLexer {
+	
+	// Column of each char and transitions flattened row by row
+	private final int[] charClass;
+	private final int[] flatTable;
+	private final int numOfCol, otherCol;
+	
+	// State information
+	private final boolean[] finalStates, backtrackStates, identifierStates;
+	private final String[] stateTokens;
+	private final int[] stateKinds;
+	
+	/**
+	 * Create lexer from compiled tables, the arrays must not be changed after
+	 * @param charClass column of each char below {@link ABTableModel#CHAR_CLASS_SIZE}
+	 * @param flatTable transitions row by row
+	 * @param numOfCol
+	 * @param otherCol column of the chars outside the char class table
+	 * @param finalStates
+	 * @param backtrackStates
+	 * @param stateTokens
+	 */
+	CompiledLexer(int[] charClass, int[] flatTable, int numOfCol, int otherCol, boolean[] finalStates, boolean[] backtrackStates, String[] stateTokens) {
+		this.charClass = charClass;
+		this.flatTable = flatTable;
+		this.numOfCol = numOfCol;
+		this.otherCol = otherCol;
+		this.finalStates = finalStates;
+		this.backtrackStates = backtrackStates;
+		this.stateTokens = stateTokens;
+		
+		// Identifier states and token kinds
+		identifierStates = new boolean[finalStates.length];
+		stateKinds = new int[finalStates.length];
+		for(int state = 0; state < finalStates.length; state++) {
+			identifierStates[state] = finalStates[state] && ABTokenHelper.T_IDENTIFIER.equals(stateTokens[state]);
+			stateKinds[state] = finalStates[state] ? ABTokenKind.id(stateTokens[state]) : -1;
+		}
+	}
+	
+	/**
+	 * Load the lexer of a machine
+	 * @param dfaFile .dfa or .spec resource
+	 * @return lexer
+	 * @throws IOException
+	 */
+	public static CompiledLexer load(String dfaFile) throws IOException {
+		return load(dfaFile, false);
+	}
+	
+	/**
+	 * Load the lexer of a machine
+	 * @param dfaFile .dfa or .spec resource
+	 * @param minimize build the table from the minimized machine
+	 * @return lexer
+	 * @throws IOException
+	 */
+	public static CompiledLexer load(String dfaFile, boolean minimize) throws IOException {
+		return ABTableModelCache.load(dfaFile, minimize).getLexer();
+	}
+	
+	/**
+	 * Create a cursor on a text
+	 * @param text
+	 * @return cursor on the tokens
+	 */
+	public ABScannerCursor scan(CharSequence text) {
+		return new ABScannerCursor(this, text);
+	}
+	
+	/**
+	 * Create a cursor reading from a stream through a fixed size buffer
+	 * @param reader
+	 * @return cursor on the tokens
+	 */
+	public ABScannerCursor scan(Reader reader) {
+		return new ABScannerCursor(this, reader, ABScannerCursor.DEFAULT_BUFFER_SIZE);
+	}
+	
+	/**
+	 * Scan a text into a token buffer, without creating the token values
+	 * @param text
+	 * @return tokens in scan order
+	 */
+	public ABTokenBuffer tokenize(CharSequence text) {
+		ABScannerCursor cursor = new ABScannerCursor(this, text);
+		ABTokenBuffer tokens = new ABTokenBuffer(cursor.getBuffer());
+		int kind;
+		while((kind = cursor.nextKind()) >= 0)
+			tokens.add(kind, cursor.getTokenStart(), cursor.getPosition() - cursor.getTokenStart(), cursor.getTokenRow(), cursor.getTokenCol());
+		tokens.trim();
+		return tokens;
+	}
+	
+	/**
+	 * Look up next state
+	 * @param state
+	 * @param c
+	 * @return state index
+	 */
+	public int lookup(int state, char c) {
+		return flatTable[state * numOfCol + (c < ABTableModel.CHAR_CLASS_SIZE ? charClass[c] : otherCol)];
+	}
+	
+	/**
+	 * Get number of states
+	 * @return number of states
+	 */
+	public int getNumOfStates() {
+		return finalStates.length;
+	}
+	
+	/**
+	 * Check if a state is final
+	 * @param state
+	 * @return true if final
+	 */
+	public boolean isFinal(int state) {
+		return finalStates[state];
+	}
+	
+	/**
+	 * Check if a state should backtrack one char
+	 * @param state
+	 * @return true if backtrack
+	 */
+	public boolean isBacktrack(int state) {
+		return backtrackStates[state];
+	}
+	
+	/**
+	 * Check if a state is final for an identifier, which can be a reserved word
+	 * @param state
+	 * @return true if identifier
+	 */
+	public boolean isIdentifier(int state) {
+		return identifierStates[state];
+	}
+	
+	/**
+	 * Check if a state is final for an error token
+	 * @param state
+	 * @return true if error
+	 */
+	public boolean isError(int state) {
+		return stateKinds[state] >= 0 && ABTokenKind.isError(stateKinds[state]);
+	}
+	
+	/**
+	 * Get the token of a state
+	 * @param state
+	 * @return token or null if not final
+	 */
+	public String getToken(int state) {
+		return stateTokens[state];
+	}
+	
+	/**
+	 * Get the token kind id of a state
+	 * @param state
+	 * @return kind or -1 if not final
+	 */
+	public int getKind(int state) {
+		return stateKinds[state];
+	}
+}
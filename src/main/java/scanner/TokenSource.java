@@ -0,0 +1,13 @@
+package scanner;
+
+/**
+ * Source of tokens pulled one at a time
+ */
+public interface TokenSource {
+	
+	/**
+	 * Get next token
+	 * @return next token or null if no more tokens
+	 */
+	ABToken nextToken();
+}
@@ -52,6 +52,7 @@ public class ABTokenHelper {
 	public static final String T_ERR_TRAILING_ZERO = "T_ERR_TRAILING_ZERO";
 	public static final String T_ERR_FLOAT_FORMAT = "T_ERR_FLOAT_FORMAT";
 	public static final String T_ERR_BLOCK_COMMENT = "T_ERR_BLOCK_COMMENT";
+	public static final String T_ERR_TOO_MANY_ERRORS = "T_ERR_TOO_MANY_ERRORS";
 	
 	// Non terminals
 	public static final String N_SEMICOLON = "semicolon";
@@ -0,0 +1,81 @@
+package scanner.helper;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Int ids of the token kinds, e.g. T_IDENTIFIER
+ * Ids are assigned the first time a kind is seen, from the final states of the lexers, the reserved words
+ * and the grammar terminals, so kinds can be compared with == instead of String.equals.
+ * Ids only hold for the running program and are not written to files.
+ */
+public class ABTokenKind {
+	
+	// Id of each kind
+	private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+	
+	// Kind of each id, replaced when a kind is added
+	private static volatile String[] names = new String[0];
+	private static volatile boolean[] errors = new boolean[0];
+	
+	/**
+	 * Get the id of a kind, assigning one if the kind is new
+	 * @param kind
+	 * @return id
+	 */
+	public static int id(String kind) {
+		Integer id = ids.get(kind);
+		return id != null ? id : register(kind);
+	}
+	
+	/**
+	 * Get the kind of an id
+	 * @param id
+	 * @return kind
+	 */
+	public static String name(int id) {
+		return names[id];
+	}
+	
+	/**
+	 * Check if a kind is an error token
+	 * @param id
+	 * @return true if the kind starts with the error prefix
+	 */
+	public static boolean isError(int id) {
+		return errors[id];
+	}
+	
+	/**
+	 * Get number of kinds with an id
+	 * @return number of kinds
+	 */
+	public static int size() {
+		return names.length;
+	}
+	
+	/**
+	 * Assign the next id to a kind
+	 * @param kind
+	 * @return id
+	 */
+	private static synchronized int register(String kind) {
+		
+		// If added by another thread
+		Integer id = ids.get(kind);
+		if(id != null)
+			return id;
+		
+		// Names are published before the id
+		int newId = names.length;
+		String[] newNames = Arrays.copyOf(names, newId + 1);
+		boolean[] newErrors = Arrays.copyOf(errors, newId + 1);
+		newNames[newId] = kind;
+		newErrors[newId] = kind.startsWith(ABTokenHelper.ERROR_TOKEN_PREFIX);
+		errors = newErrors;
+		names = newNames;
+		ids.put(kind, newId);
+		return newId;
+	}
+}
@@ -32,7 +32,8 @@ public class ErrorHelper {
 		FLOAT_FORMAT(ABTokenHelper.T_ERR_FLOAT_FORMAT, "Wrong float numer '%s' at line %d col %d"),
 		UNCLOSED_BLOCK_COMMENT(ABTokenHelper.T_ERR_BLOCK_COMMENT, "Block comment '%s' at line %d col %d is not closed"),
 		TRAILING_ZERO(ABTokenHelper.T_ERR_TRAILING_ZERO, "Float number '%s' at line %d col %d cannot end with a zero"),
-		LEADING_ZERO(ABTokenHelper.T_ERR_LEADING_ZERO, "Number '%s' at line %d col %d cannot start with a zero")
+		LEADING_ZERO(ABTokenHelper.T_ERR_LEADING_ZERO, "Number '%s' at line %d col %d cannot start with a zero"),
+		TOO_MANY_ERRORS(ABTokenHelper.T_ERR_TOO_MANY_ERRORS, "Scanning stopped after %s errors at line %d col %d")
 		;
 		
 		private String token, comment;
@@ -1,5 +1,6 @@
 package scanner.helper;
 
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -8,6 +9,13 @@ public class IdentifierHelper {
 	// Reserved word map
 	private Map<String, String> reservedWords = new HashMap<>();
 	
+	// Reserved words by length and first char
+	private ReservedWords[][][] reservedWordTable;
+	private int maxLength;
+	
+	// First chars in the table
+	private static final int FIRST_CHARS = 128;
+	
 	// Singleton
 	private static IdentifierHelper instance = new IdentifierHelper();
 	
@@ -20,6 +28,18 @@ public class IdentifierHelper {
 		ReservedWords values[] = ReservedWords.values();
 		for(ReservedWords reservedWord : values)
 			reservedWords.put(reservedWord.getMatch(), reservedWord.getToken());
+		
+		// Group reserved words by length and first char
+		for(ReservedWords reservedWord : values)
+			maxLength = Math.max(maxLength, reservedWord.getMatch().length());
+		reservedWordTable = new ReservedWords[maxLength + 1][FIRST_CHARS][];
+		for(ReservedWords reservedWord : values) {
+			String match = reservedWord.getMatch();
+			ReservedWords[] candidates = reservedWordTable[match.length()][match.charAt(0)];
+			candidates = candidates == null ? new ReservedWords[1] : Arrays.copyOf(candidates, candidates.length + 1);
+			candidates[candidates.length - 1] = reservedWord;
+			reservedWordTable[match.length()][match.charAt(0)] = candidates;
+		}
 	}
 	
 	/**
@@ -43,9 +63,11 @@ public class IdentifierHelper {
 		;
 		
 		private String match, token;
+		private int kind;
 		ReservedWords(String match, String token) {
 			this.match = match;
 			this.token = token;
+			this.kind = ABTokenKind.id(token);
 		}
 		
 		/**
@@ -63,6 +85,14 @@ public class IdentifierHelper {
 		public String getToken() {
 			return this.token;
 		}
+		
+		/**
+		 * Get token kind id
+		 * @return kind
+		 */
+		public int getKind() {
+			return this.kind;
+		}
 	}
 	
 	/**
@@ -75,4 +105,31 @@ public class IdentifierHelper {
 		String token = instance.reservedWords.get(value);
 		return token == null ? defaultToken : token;
 	}
+	
+	/**
+	 * Get the reserved word in a part of a buffer
+	 * @param buffer
+	 * @param start
+	 * @param end
+	 * @return reserved word or null if the chars are not a reserved word
+	 */
+	public static ReservedWords getReservedWord(char[] buffer, int start, int end) {
+		int length = end - start;
+		if(length < 1 || length > instance.maxLength || buffer[start] >= FIRST_CHARS)
+			return null;
+		
+		// Compare the remaining chars of the words with the same length and first char
+		ReservedWords[] candidates = instance.reservedWordTable[length][buffer[start]];
+		if(candidates != null) {
+			for(ReservedWords reservedWord : candidates) {
+				String match = reservedWord.getMatch();
+				int i = 1;
+				while(i < length && buffer[start + i] == match.charAt(i))
+					i++;
+				if(i == length)
+					return reservedWord;
+			}
+		}
+		return null;
+	}
 }
@@ -1192,7 +1192,7 @@ public class ABSemantic {
             ABToken type = entry.getType().get(0);
 
             // If it's a variable and of non primitive type
-            if(entry.getKind() == ABSymbolTableEntry.Kind.VARIABLE && type.getToken().equals(ABTokenHelper.T_IDENTIFIER) && !visitedVariables.contains(entry)) {
+            if(entry.getKind() == ABSymbolTableEntry.Kind.VARIABLE && type.isIdentifier() && !visitedVariables.contains(entry)) {
 
                 // Get the class symbol table for this
                 ABSymbolTableEntry newTableEntry = searchEntryInTable(globalTable, type.getValue(), ABSymbolTableEntry.Kind.CLASS);
@@ -1268,7 +1268,7 @@ public class ABSemantic {
         ABToken type = entry.getType().get(0);
 
         // If non-primitive
-        if(type.getToken().equals(ABTokenHelper.T_IDENTIFIER)) {
+        if(type.isIdentifier()) {
 
             // Search for the type in the classes
             ABSymbolTableEntry result = searchEntryInTable(globalTable, type.getValue(), ABSymbolTableEntry.Kind.CLASS);
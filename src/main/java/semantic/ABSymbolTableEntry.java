@@ -1,7 +1,6 @@
 package semantic;
 
 import scanner.ABToken;
-import scanner.helper.ABTokenHelper;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -128,7 +127,7 @@ public class ABSymbolTableEntry {
     }
 
     public boolean isPrimitiveType() {
-        return !type.get(0).getToken().equals(ABTokenHelper.T_IDENTIFIER);
+        return !type.get(0).isIdentifier();
     }
 
     public String getStructure() {
@@ -139,7 +138,7 @@ public class ABSymbolTableEntry {
         }
 
         if( !isArray()) {
-            return type.get(0).getToken().equals(ABTokenHelper.T_IDENTIFIER) ? "Class" : "Simple";
+            return type.get(0).isIdentifier() ? "Class" : "Simple";
 
         } else {
             return "Array of type '" + type.get(0).getValue() + "' of dimension " + getArrayDimension();
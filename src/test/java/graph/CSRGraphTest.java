@@ -0,0 +1,239 @@
+package graph;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class CSRGraphTest {
+	
+	@Test
+	public void testCSRGraph_matchesGraph() {
+		Random random = new Random(42);
+		
+		for(boolean directed : new boolean[]{true, false}) {
+			for(int test = 0; test < 50; test++) {
+				
+				// Random graph, some vertices are removed to leave gaps in the ids
+				Graph<Integer,String> graph = randomGraph(random, directed, 1 + random.nextInt(40), random.nextInt(60));
+				Vertex<Integer,String>[] vertices = graph.vertices_array();
+				if(vertices.length > 1 && random.nextBoolean()) {
+					graph.removeVertex(vertices[random.nextInt(vertices.length)]);
+					vertices = graph.vertices_array();
+				}
+				CSRGraph<Integer,String> csr = graph.toCSR();
+				
+				// Vertices and edges
+				assertEquals(vertices.length, csr.size());
+				assertEquals(graph.edges_array().length, csr.getNumOfEdges());
+				for(int v = 0; v < vertices.length; v++) {
+					assertEquals(vertices[v].getID(), csr.getGraphID(v));
+					assertEquals(vertices[v].getData(), csr.getData(v));
+					assertArrayEquals(toIndices(graph, vertices, vertices[v].getNeighbors()), csr.getNeighbors(v));
+					assertEquals(vertices[v].getInEdges().size(), csr.getInDegree(v));
+					for(int e = csr.getOutEdgeStart(v); e < csr.getOutEdgeEnd(v); e++)
+						assertEquals(v, csr.getEdgeSource(e));
+				}
+				
+				// Traversals
+				assertArrayEquals(toIndices(graph, vertices, graph.BFS()), csr.BFS());
+				assertArrayEquals(toIndices(graph, vertices, graph.DFS()), csr.DFS());
+				int start = random.nextInt(vertices.length);
+				assertArrayEquals(toIndices(graph, vertices, graph.BFS(vertices[start])), csr.BFS(start));
+				assertArrayEquals(toIndices(graph, vertices, graph.DFS(vertices[start])), csr.DFS(start));
+				
+				// Options
+				assertEquals(graph.isCyclic(), csr.isCyclic());
+				assertEquals(graph.connectedComponents(), csr.connectedComponents());
+				assertEquals(graph.isConnected(), csr.isConnected());
+				
+				// Adjacency
+				for(int v1 = 0; v1 < vertices.length; v1++) {
+					for(int v2 = 0; v2 < vertices.length; v2++) {
+						boolean adjacent = false;
+						for(Vertex<Integer,String> neighbor : vertices[v1].getNeighbors())
+							adjacent |= neighbor == vertices[v2];
+						assertEquals(adjacent, csr.areAdjacent(v1, v2));
+					}
+				}
+			}
+		}
+	}
+	
+	@Test
+	public void testCSRGraph_fromArrays() {
+		
+		// 0 - 1 - 2, 3
+		CSRGraph<String,String> graph = new CSRGraph<>(new String[]{"a", "b", "c", "d"}, new int[]{0, 1}, new int[]{1, 2}, new double[]{1.5, 2.5}, new String[]{"x", "y"}, false);
+		assertEquals(4, graph.getNumOfEdges());
+		assertArrayEquals(new int[]{1}, graph.getNeighbors(0));
+		assertArrayEquals(new int[]{0, 2}, graph.getNeighbors(1));
+		assertEquals(2.5, graph.getEdgeWeight(graph.getOutEdgeStart(2)), 0.0);
+		assertEquals("y", graph.getEdgeLabel(graph.getOutEdgeStart(2)));
+		assertArrayEquals(new int[]{0, 1, 2, 3}, graph.DFS());
+		assertArrayEquals(new int[]{1, 0, 2}, graph.BFS(1));
+		assertEquals(2, graph.connectedComponents());
+		assertFalse(graph.isCyclic());
+		assertTrue(graph.areAdjacent(2, 1));
+		
+		// Directed cycle
+		CSRGraph<String,String> cycle = new CSRGraph<>(new String[]{"a", "b", "c"}, new int[]{0, 1, 2}, new int[]{1, 2, 0}, null, null, true);
+		assertTrue(cycle.isCyclic());
+		assertTrue(cycle.isConnected());
+		assertFalse(cycle.areAdjacent(1, 0));
+		
+		// Deep path does not recurse
+		int size = 100000;
+		int[] from = new int[size - 1], to = new int[size - 1];
+		for(int v = 0; v < size - 1; v++) {
+			from[v] = v;
+			to[v] = v + 1;
+		}
+		CSRGraph<Integer,String> path = new CSRGraph<>(new Integer[size], from, to, null, null, true);
+		assertEquals(size - 1, path.DFS(0)[size - 1]);
+		assertFalse(path.isCyclic());
+	}
+	
+	@Test
+	public void testReachability_matchesBFS() {
+		Random random = new Random(7);
+		
+		for(boolean directed : new boolean[]{true, false}) {
+			for(int test = 0; test < 50; test++) {
+				Graph<Integer,String> graph = randomGraph(random, directed, 1 + random.nextInt(150), random.nextInt(200));
+				CSRGraph<Integer,String> csr = graph.toCSR();
+				Reachability reachability = csr.reachability();
+				
+				for(int v1 = 0; v1 < csr.size(); v1++) {
+					
+					// Reached vertices are the BFS from the vertex
+					int[] expected = csr.BFS(v1);
+					Arrays.sort(expected);
+					assertArrayEquals(expected, reachability.getReachable(v1));
+					for(int v2 = 0; v2 < csr.size(); v2++)
+						assertEquals(Arrays.binarySearch(expected, v2) >= 0, reachability.reaches(v1, v2));
+				}
+				
+				// Same component if they reach each other, components are numbered after the ones they reach
+				for(int v1 = 0; v1 < csr.size(); v1++) {
+					for(int v2 = 0; v2 < csr.size(); v2++) {
+						boolean both = reachability.reaches(v1, v2) && reachability.reaches(v2, v1);
+						assertEquals(both, reachability.getComponent(v1) == reachability.getComponent(v2));
+						if(reachability.reaches(v1, v2))
+							assertTrue(reachability.getComponent(v1) >= reachability.getComponent(v2));
+					}
+				}
+				if(!directed)
+					assertEquals(csr.connectedComponents(), reachability.getNumOfComponents());
+			}
+		}
+		
+		// Deep path does not recurse
+		int size = 20000;
+		int[] from = new int[size - 1], to = new int[size - 1];
+		for(int v = 0; v < size - 1; v++) {
+			from[v] = v;
+			to[v] = v + 1;
+		}
+		Reachability path = new CSRGraph<>(new Integer[size], from, to, null, null, true).reachability();
+		assertTrue(path.reaches(0, size - 1));
+		assertFalse(path.reaches(size - 1, 0));
+		assertEquals(size, path.getNumOfComponents());
+	}
+	
+	@Test
+	public void testShortestPaths_matchesRelaxation() {
+		Random random = new Random(11);
+		
+		for(boolean directed : new boolean[]{true, false}) {
+			for(int test = 0; test < 50; test++) {
+				Graph<Integer,String> graph = randomGraph(random, directed, 1 + random.nextInt(60), random.nextInt(150));
+				CSRGraph<Integer,String> csr = graph.toCSR();
+				int source = random.nextInt(csr.size());
+				ShortestPaths paths = csr.shortestPaths(source);
+				
+				// Expected distances by relaxing all edges until nothing changes
+				double[] expected = new double[csr.size()];
+				Arrays.fill(expected, Double.MAX_VALUE);
+				expected[source] = 0.0;
+				for(boolean changed = true; changed; ) {
+					changed = false;
+					for(int e = 0; e < csr.getNumOfEdges(); e++) {
+						int from = csr.getEdgeSource(e), to = csr.getEdgeTarget(e);
+						if(expected[from] != Double.MAX_VALUE && expected[from] + csr.getEdgeWeight(e) < expected[to]) {
+							expected[to] = expected[from] + csr.getEdgeWeight(e);
+							changed = true;
+						}
+					}
+				}
+				
+				// Distances and paths
+				assertEquals(source, paths.getSource());
+				for(int v = 0; v < csr.size(); v++) {
+					assertEquals(expected[v], paths.getDistance(v), 0.0);
+					assertEquals(expected[v] != Double.MAX_VALUE, paths.hasPath(v));
+					
+					int current = source;
+					double cost = 0.0;
+					for(int e : paths.getPath(v)) {
+						assertEquals(current, csr.getEdgeSource(e));
+						current = csr.getEdgeTarget(e);
+						cost += csr.getEdgeWeight(e);
+					}
+					if(paths.hasPath(v)) {
+						assertEquals(v, current);
+						assertEquals(expected[v], cost, 0.0);
+					}
+				}
+			}
+		}
+		
+		// Same result from the graph, which is not modified
+		Graph<Integer,String> graph = randomGraph(random, true, 30, 80);
+		Vertex<Integer,String>[] vertices = graph.vertices_array();
+		ShortestPaths paths = graph.shortestPaths(vertices[3]);
+		assertEquals(3, paths.getSource());
+		for(Vertex<Integer,String> vertex : vertices)
+			assertNull(vertex.getDijkstra_parent());
+		
+		// Negative weights are rejected
+		try {
+			new CSRGraph<>(new Integer[2], new int[]{0}, new int[]{1}, new double[]{-1.0}, null, true).shortestPaths(0);
+			fail("Negative weight accepted");
+		} catch (IllegalArgumentException e) {}
+	}
+	
+	/**
+	 * Create a random graph
+	 * @param random
+	 * @param directed
+	 * @param size
+	 * @param edges
+	 * @return graph
+	 */
+	public Graph<Integer,String> randomGraph(Random random, boolean directed, int size, int edges) {
+		Graph<Integer,String> graph = new Graph<>(directed);
+		for(int v = 0; v < size; v++)
+			graph.addVertex(v);
+		Vertex<Integer,String>[] vertices = graph.vertices_array();
+		for(int e = 0; e < edges; e++)
+			graph.addEdge(vertices[random.nextInt(size)], vertices[random.nextInt(size)], "e" + e, random.nextInt(10));
+		return graph;
+	}
+	
+	/**
+	 * Convert vertices to their index in an array
+	 * @param graph
+	 * @param vertices
+	 * @param path
+	 * @return indices
+	 */
+	public int[] toIndices(Graph<Integer,String> graph, Vertex<Integer,String>[] vertices, Vertex<Integer,String>[] path) {
+		int[] indices = new int[path.length];
+		for(int i = 0; i < path.length; i++)
+			indices[i] = graph.getIndexOfVertexByID(vertices, path[i].getID());
+		return indices;
+	}
+}
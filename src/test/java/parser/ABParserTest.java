@@ -3,17 +3,25 @@ package parser;
 import static org.junit.Assert.*;
 
 import java.io.IOException;
+import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Scanner;
+import java.util.Stack;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
 import parser.ABParser.ABParserSnapshot;
+import parser.ABParserTable.ABParserTableCell;
+import parser.grammar.ABGrammar;
+import parser.grammar.ABGrammarToken;
+import scanner.ABParserTokenSource;
 import scanner.ABScanner;
 import scanner.ABToken;
+import scanner.TokenSource;
+import scanner.helper.ABTokenKind;
 
 public class ABParserTest {
 	
@@ -237,6 +245,209 @@ public class ABParserTest {
 		assertArrayEquals(stringToArray(expected_error), errorSnapshotsToString(errorSnapshots));
 	}
 	
+	@Test
+	public void testParse_tokenSourceMatchesList() throws IOException {
+		
+		for(int i = 1; i <= 7; i++) {
+			String input = IOUtils.toString(getClass().getResource("/parser/input/example" + i + ".txt")) + "\n// trailing comment";
+			
+			// Parse scanned list
+			abScanner.processText(input);
+			boolean expectedParse = abParser.parse(abScanner.getNonErrorTokens());
+			String[] expectedSnapshots = snapshotsToString(abParser.getAllSnapshots());
+			
+			// Parse tokens pulled from the scanner
+			ABParserTokenSource source = abScanner.parserTokens(new StringReader(input));
+			assertEquals(expectedParse, abParser.parse(source));
+			assertArrayEquals(expectedSnapshots, snapshotsToString(abParser.getAllSnapshots()));
+			assertEquals(0, source.getErrorTokens().size());
+		}
+	}
+	
+	@Test
+	public void testParse_readsRestOfInputForSnapshots() throws IOException {
+		
+		// Program followed by code that is not parsed
+		StringBuilder input = new StringBuilder(IOUtils.toString(getClass().getResource("/parser/input/example1.txt")));
+		for(int i = 0; i < 100; i++)
+			input.append(" }");
+		
+		// Parse scanned list
+		abScanner.processText(input.toString());
+		assertFalse(abParser.parse(abScanner.getNonErrorTokens()));
+		String[] expectedSnapshots = snapshotsToString(abParser.getAllSnapshots());
+		
+		// Parse tokens pulled from the scanner, counted
+		final ABParserTokenSource source = abScanner.parserTokens(new StringReader(input.toString()));
+		final int[] pulled = new int[1];
+		assertFalse(abParser.parse(new TokenSource() {
+			@Override
+			public ABToken nextToken() {
+				ABToken token = source.nextToken();
+				if(token != null)
+					pulled[0]++;
+				return token;
+			}
+		}));
+		
+		// The parser stops at the first of the 100 tokens not parsed, the snapshots read the rest
+		int parsed = pulled[0];
+		assertArrayEquals(expectedSnapshots, snapshotsToString(abParser.getAllSnapshots()));
+		assertEquals(pulled[0] - 100, parsed);
+	}
+	
+	@Test
+	public void testParse_fastModeMatchesSnapshots() throws IOException {
+		ABParser fastParser = new ABParser("/parser/grammar.bnf");
+		fastParser.setFastMode(true);
+		
+		// Examples, then examples with tokens removed or added
+		List<String> inputs = new ArrayList<>();
+		for(int i = 1; i <= 7; i++)
+			inputs.add(IOUtils.toString(getClass().getResource("/parser/input/example" + i + ".txt")));
+		for(int i = 1; i <= 7; i++) {
+			String input = inputs.get(i - 1);
+			inputs.add(input.replaceFirst(";", ""));
+			inputs.add(input.replaceFirst("\\{", "{ ) int"));
+			inputs.add(input.substring(0, input.length() / 2));
+			inputs.add(input + " x = 1;");
+		}
+		
+		for(String input : inputs) {
+			abScanner.processText(input);
+			boolean expectedParse = abParser.parse(abScanner.getNonErrorTokens());
+			String[] expectedSnapshots = snapshotsToString(abParser.getAllSnapshots());
+			String[] expectedErrors = errorSnapshotsToString(abParser.getFilteredErrorSnapshots());
+			
+			// Errors are available before the snapshots are replayed
+			assertEquals(expectedParse, fastParser.parse(abScanner.getNonErrorTokens()));
+			assertArrayEquals(expectedErrors, errorSnapshotsToString(fastParser.getFilteredErrorSnapshots()));
+			assertArrayEquals(expectedSnapshots, snapshotsToString(fastParser.getAllSnapshots()));
+			assertArrayEquals(expectedErrors, errorSnapshotsToString(fastParser.getFilteredErrorSnapshots()));
+		}
+	}
+	
+	@Test
+	public void testParse_phaseTwoResolvesForwardReferences() {
+		
+		// B is declared after its use in A
+		abScanner.processText("class A { B b; int f() { return (b.g()); }; }; class B { int g() { return (1); }; }; program { A a; int x; x = a.f(); };");
+		assertTrue(abParser.parse(abScanner.getNonErrorTokens()));
+		assertEquals(0, abParser.getSemantic().getErrors().size());
+		
+		// Undefined member of B
+		abScanner.processText("class A { B b; int f() { return (b.h()); }; }; class B { int g() { return (1); }; }; program { A a; int x; x = a.f(); };");
+		assertTrue(abParser.parse(abScanner.getNonErrorTokens()));
+		assertEquals("Undefined data member 'h' of the class 'B' at line 1 column 36", abParser.getSemantic().getErrors().get(0).toString());
+	}
+	
+	@Test
+	public void testParseTree_matchesTokenTree() throws IOException {
+		ABParser fastParser = new ABParser("/parser/grammar.bnf");
+		fastParser.setFastMode(true);
+		
+		for(int i = 1; i <= 7; i++) {
+			abScanner.processText(IOUtils.toString(getClass().getResource("/parser/input/example" + i + ".txt")));
+			abParser.parse(abScanner.getNonErrorTokens());
+			fastParser.parse(abScanner.getNonErrorTokens());
+			
+			// Same tree from the tokens and from the int arrays
+			String expected = treeToString(abParser.getTreeRoot());
+			assertEquals(expected, treeToString(abParser.getParseTree().toGrammarToken()));
+			assertEquals(expected, treeToString(fastParser.getTreeRoot()));
+			
+			// Children in production order
+			ABParseTree tree = fastParser.getParseTree();
+			List<String> children = new ArrayList<>();
+			for(int child = tree.getFirstChild(tree.getRoot()); child != ABParseTree.NONE; child = tree.getNextSibling(child))
+				children.add(tree.getSymbol(child) == ABParseTree.EPSILON ? ABGrammarToken.EPSILON : fastParser.getCompiledTable().getSymbolName(tree.getSymbol(child)));
+			List<String> expectedChildren = new ArrayList<>();
+			for(ABGrammarToken child : abParser.getTreeRoot().getChildren())
+				expectedChildren.add(0, child.getValue());
+			assertEquals(expectedChildren, children);
+		}
+	}
+	
+	@Test
+	public void testParse_intStackMatchesTokenStack() throws IOException {
+		ABParser fastParser = new ABParser("/parser/grammar.bnf");
+		fastParser.setFastMode(true);
+		ABGrammar abGrammar = new ABGrammar("/parser/grammar.bnf");
+		ABParserTable table = new ABParserTable(abGrammar);
+		
+		// Examples, then examples with tokens removed or added
+		List<String> inputs = new ArrayList<>();
+		for(int i = 1; i <= 7; i++)
+			inputs.add(IOUtils.toString(getClass().getResource("/parser/input/example" + i + ".txt")));
+		for(int i = 1; i <= 7; i++) {
+			String input = inputs.get(i - 1);
+			inputs.add(input.replaceFirst(";", ""));
+			inputs.add(input.replaceFirst("\\{", "{ ) int"));
+			inputs.add(input.substring(0, input.length() / 2));
+			inputs.add(input + " x = 1;");
+		}
+		
+		for(String input : inputs) {
+			abScanner.processText(input);
+			List<Integer> expectedErrors = new ArrayList<>();
+			boolean expectedParse = tokenStackParse(abGrammar, table, abScanner.getNonErrorTokens(), expectedErrors);
+			
+			// Same result and error positions in both modes
+			for(ABParser parser : new ABParser[]{abParser, fastParser}) {
+				assertEquals(expectedParse, parser.parse(abScanner.getNonErrorTokens()));
+				List<Integer> errors = new ArrayList<>();
+				for(ABParserSnapshot snapshot : parser.getAllSnapshots())
+					if(snapshot.isError())
+						errors.add(snapshot.getInputIndex());
+				assertEquals(expectedErrors, errors);
+			}
+		}
+	}
+	
+	@Test
+	public void testCompiledTable_matchesTable() {
+		
+		// Table
+		ABGrammar abGrammar = new ABGrammar("/parser/grammar.bnf");
+		ABParserTable table = new ABParserTable(abGrammar);
+		CompiledParseTable compiled = table.getCompiledTable();
+		
+		for(String nonTerminal : abGrammar.getNonTerminals()) {
+			int symbol = compiled.getNumOfSymbols() - 1;
+			while(!compiled.getSymbolName(symbol).equals(nonTerminal) || !compiled.isNonTerminal(symbol))
+				symbol--;
+			
+			for(String terminal : abGrammar.getTerminals()) {
+				int kind = ABTokenKind.id(terminal);
+				assertEquals(terminal, compiled.getSymbolName(compiled.getTerminal(kind)));
+				
+				// Same cell
+				ABParserTableCell cell = table.getTableAt(nonTerminal, terminal);
+				assertSame(cell, compiled.getCell(symbol, kind));
+				int action = compiled.getAction(symbol, kind);
+				if(cell.isError()) {
+					assertEquals(cell.getErrorDecision().equals(ABParserTableCell.POP) ? CompiledParseTable.ERROR_POP : CompiledParseTable.ERROR_SCAN, action);
+					continue;
+				}
+				
+				// Same production, epsilon removed and kept at its position
+				assertEquals(cell.getId(), compiled.getProductionId(action));
+				assertEquals(symbol, compiled.getLhs(action));
+				List<String> expected = new ArrayList<>(), actual = new ArrayList<>();
+				int epsilon = -1;
+				for(ABGrammarToken token : cell.getProductionWithAction())
+					if(!token.isEpsilon())
+						expected.add(token.getSymbol() + " " + token.getValue());
+					else
+						epsilon = expected.size();
+				assertEquals(epsilon, compiled.getEpsilonIndex(action));
+				for(int i = 0; i < compiled.getProductionLength(action); i++)
+					actual.add(compiled.getProductionSymbol(action, i) + " " + compiled.getSymbolName(compiled.getProductionSymbol(action, i)));
+				assertEquals(expected, actual);
+			}
+		}
+	}
+	
 	/**
 	 * Convert snapshot to string
 	 * @param snapshot
@@ -255,6 +466,73 @@ public class ABParserTest {
 		return String.format("%d\t%s\t%s\t%s", snapshot.getId(), snapshot.getStack(), snapshot.getInput(), snapshot.getDerivation());
 	}
 	
+	/**
+	 * Recognize input on a java.util.Stack of grammar tokens with the String table, as the parser did before the int stack
+	 * @param abGrammar
+	 * @param table
+	 * @param scannerTokens
+	 * @param errors input token index of each error step
+	 * @return true if no error
+	 */
+	public boolean tokenStackParse(ABGrammar abGrammar, ABParserTable table, List<ABToken> scannerTokens, List<Integer> errors) {
+		List<ABToken> tokens = new ArrayList<>();
+		ABParserTokenSource source = new ABParserTokenSource(scannerTokens.iterator());
+		ABToken token;
+		while((token = source.nextToken()) != null)
+			tokens.add(token);
+		
+		Stack<ABGrammarToken> stack = new Stack<>();
+		stack.push(new ABGrammarToken(ABGrammarToken.END_OF_STACK));
+		stack.push(new ABGrammarToken(abGrammar.getStart()));
+		int index = 0;
+		while(!stack.peek().isEndOfStack()) {
+			ABGrammarToken top = stack.pop();
+			if(top.isTerminal()) {
+				if(top.getValue().equals(tokens.get(index).getToken()))
+					index++;
+				else
+					errors.add(index);
+			} else if(top.isNonTerminal()) {
+				ABParserTableCell cell = table.getTableAt(top.getValue(), tokens.get(index).getToken());
+				if(!cell.isError()) {
+					List<ABGrammarToken> production = cell.getCopyOfProductionWithAction();
+					for(int p = production.size() - 1; p >= 0; p--)
+						if(!production.get(p).isEpsilon())
+							stack.push(production.get(p));
+				} else {
+					errors.add(index);
+					if(cell.getErrorDecision().equals(ABParserTableCell.SCAN)) {
+						stack.push(top);
+						index++;
+					}
+				}
+			}
+		}
+		
+		// Unparsed input
+		if(!tokens.get(index).getToken().equals(ABGrammarToken.END_OF_STACK))
+			errors.add(index);
+		return errors.isEmpty();
+	}
+	
+	/**
+	 * Convert tree to string
+	 * @param token root
+	 * @return string
+	 */
+	public String treeToString(ABGrammarToken token) {
+		StringBuilder result = new StringBuilder(token.toString());
+		if(token.isTerminal())
+			result.append('=').append(token.getTerminalValue() == null ? null : token.getTerminalValue().getValue());
+		if(token.isNonTerminal() && !token.getChildren().isEmpty()) {
+			result.append('(');
+			for(ABGrammarToken child : token.getChildren())
+				result.append(treeToString(child)).append(' ');
+			result.append(')');
+		}
+		return result.toString();
+	}
+	
 	/**
 	 * Convert snapshots to string
 	 * @param snapshots
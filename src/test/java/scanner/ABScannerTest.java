@@ -1,14 +1,33 @@
 package scanner;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.IOUtils;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import finiteAutomata.FiniteAutomata;
+import finiteAutomata.State;
+import finiteAutomata.Transition;
+import scanner.helper.ABTokenHelper;
+import scanner.helper.ABTokenKind;
+import scanner.helper.IdentifierHelper;
+import scanner.helper.IdentifierHelper.ReservedWords;
+
 import static org.junit.Assert.*;
 
 public class ABScannerTest {
@@ -126,6 +145,675 @@ public class ABScannerTest {
 		}
 	}
 	
+	@Test
+	public void testLookup_compiledMatchesReference() throws IOException {
+		
+		// Build table
+		FiniteAutomata machine = FiniteAutomata.inParser("/scanner/machine.dfa");
+		ABTableModel model = new ABTableModel(machine.getStates(), machine.getAllTransitionLabels());
+		
+		// Compare on all states and chars
+		for(int state = 0; state < model.getNumOfRow(); state++)
+			for(int c = Character.MIN_VALUE; c <= Character.MAX_VALUE; c++)
+				assertEquals(model.lookupReference(state, (char) c), model.lookup(state, (char) c));
+	}
+	
+	@Test
+	public void testProcessText_matchesProcessTextByLine() throws IOException {
+		
+		// Inputs
+		List<String> inputs = new ArrayList<>();
+		for(int i = 1; i <= 5; i++)
+			inputs.add(IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt")));
+		inputs.add("");
+		inputs.add("\n");
+		inputs.add("\n\n");
+		inputs.add("a\r\nb\rc\n");
+		inputs.add("x = 1; /* block\ncomment */ y\n// inline");
+		inputs.add("/* not closed\n");
+		
+		for(String input : inputs) {
+			
+			// Reference
+			abScanner.processTextByLine(input);
+			String[] expectedNonError = ABTokenToString(abScanner.getNonErrorTokens());
+			String[] expectedError = ABTokenToString(abScanner.getErrorTokens());
+			
+			// Run machine
+			abScanner.processText(input);
+			
+			// Verify output
+			assertArrayEquals(expectedNonError, ABTokenToString(abScanner.getNonErrorTokens()));
+			assertArrayEquals(expectedError, ABTokenToString(abScanner.getErrorTokens()));
+		}
+	}
+	
+	@Test
+	public void testStream_matchesProcessText() throws IOException {
+		
+		// Inputs
+		List<String> inputs = new ArrayList<>();
+		for(int i = 1; i <= 5; i++)
+			inputs.add(IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt")));
+		inputs.add("");
+		inputs.add("\n");
+		inputs.add("a\r\nb\r\n");
+		inputs.add("x = 1; /* a block comment longer than the buffer\non two lines */ y\n// inline");
+		
+		for(String input : inputs) {
+			
+			// Expected
+			abScanner.processText(input);
+			List<ABToken> expected = new ArrayList<>(abScanner.getNonErrorTokens());
+			expected.addAll(abScanner.getErrorTokens());
+			
+			// Small buffers make tokens cross the buffer boundaries
+			for(int bufferSize : new int[]{1, 2, 7, ABScannerCursor.DEFAULT_BUFFER_SIZE}) {
+				List<ABToken> nonError = new ArrayList<>();
+				List<ABToken> error = new ArrayList<>();
+				ABScannerCursor cursor = abScanner.stream(new StringReader(input), bufferSize);
+				while(cursor.hasNext()) {
+					ABToken token = cursor.next();
+					if(token.getToken().startsWith(ABTokenHelper.ERROR_TOKEN_PREFIX))
+						error.add(token);
+					else
+						nonError.add(token);
+				}
+				cursor.close();
+				nonError.addAll(error);
+				
+				// Verify output
+				assertArrayEquals(ABTokenToString(expected), ABTokenToString(nonError));
+			}
+		}
+	}
+	
+	@Test
+	public void testStreamPath_matchesProcessText() throws IOException {
+		
+		// Inputs
+		List<String> inputs = new ArrayList<>();
+		for(int i = 1; i <= 5; i++)
+			inputs.add(IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt")));
+		inputs.add("");
+		inputs.add("caf\u00e9 = 1; /* \u20ac\n */ x \ud83d\ude00 y\n");
+		
+		for(String input : inputs) {
+			
+			// Write file
+			Path path = Files.createTempFile("scanner", ".txt");
+			Files.write(path, input.getBytes(StandardCharsets.UTF_8));
+			
+			// Expected
+			abScanner.processText(input);
+			List<ABToken> expected = new ArrayList<>(abScanner.getNonErrorTokens());
+			expected.addAll(abScanner.getErrorTokens());
+			
+			// Scan mapped file
+			List<ABToken> nonError = new ArrayList<>();
+			List<ABToken> error = new ArrayList<>();
+			try(ABScannerCursor cursor = abScanner.stream(path)) {
+				while(cursor.hasNext()) {
+					ABToken token = cursor.next();
+					if(token.getToken().startsWith(ABTokenHelper.ERROR_TOKEN_PREFIX))
+						error.add(token);
+					else
+						nonError.add(token);
+				}
+			}
+			nonError.addAll(error);
+			
+			// Verify output
+			assertArrayEquals(ABTokenToString(expected), ABTokenToString(nonError));
+			
+			// Small mapped parts must not split chars
+			for(int segmentSize = 4; segmentSize <= 8; segmentSize++) {
+				StringBuilder read = new StringBuilder();
+				try(ABMappedFileReader reader = new ABMappedFileReader(path, segmentSize)) {
+					char[] chars = new char[3];
+					int length;
+					while((length = reader.read(chars, 0, 1 + segmentSize % 3)) >= 0)
+						read.append(chars, 0, length);
+				}
+				assertEquals(input, read.toString());
+			}
+			Files.delete(path);
+		}
+	}
+	
+	@Test
+	public void testProcessTextParallel_matchesProcessText() throws IOException {
+		
+		// Build table
+		FiniteAutomata machine = FiniteAutomata.inParser("/scanner/machine.dfa");
+		ABTableModel model = new ABTableModel(machine.getStates(), machine.getAllTransitionLabels());
+		
+		// Inputs
+		List<String> inputs = new ArrayList<>();
+		for(int i = 1; i <= 5; i++)
+			inputs.add(IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt")));
+		inputs.add("");
+		inputs.add("\n\n");
+		inputs.add("a = 1;\n/* block\ncomment\n\nx = 2;\n*/ b = 3;\n/* not closed\nc = 4;\n");
+		inputs.add("x\n/* a */ /*\n*/ y // z\n1.50 01 @ w\n");
+		inputs.add("/* a\n// */ x = 1;\ny = 2;\n/*\n*/ // /*\nz\n");
+		
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for(String input : inputs) {
+			
+			// Expected
+			abScanner.processText(input);
+			List<ABToken> expected = new ArrayList<>(abScanner.getNonErrorTokens());
+			expected.addAll(abScanner.getErrorTokens());
+			
+			// Small chunks start inside comments and tokens
+			for(int chunkSize : new int[]{1, 3, 16, ABParallelScanner.MIN_CHUNK_SIZE}) {
+				List<ABToken> nonError = new ArrayList<>();
+				List<ABToken> error = new ArrayList<>();
+				for(ABToken token : new ABParallelScanner(model.getLexer(), pool, chunkSize).scan(input)) {
+					if(token.getToken().startsWith(ABTokenHelper.ERROR_TOKEN_PREFIX))
+						error.add(token);
+					else
+						nonError.add(token);
+				}
+				nonError.addAll(error);
+				
+				// Verify output
+				assertArrayEquals(ABTokenToString(expected), ABTokenToString(nonError));
+			}
+		}
+		pool.shutdown();
+	}
+	
+	@Test
+	public void testCompiledLexer_sharedByThreads() throws Exception {
+		
+		// Expected tokens of each example
+		final CompiledLexer lexer = CompiledLexer.load("/scanner/machine.dfa");
+		final List<String> inputs = new ArrayList<>();
+		List<String[]> expected = new ArrayList<>();
+		for(int i = 1; i <= 5; i++) {
+			String input = IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt"));
+			abScanner.processText(input);
+			List<ABToken> tokens = new ArrayList<>(abScanner.getNonErrorTokens());
+			tokens.addAll(abScanner.getErrorTokens());
+			inputs.add(input);
+			expected.add(ABTokenToString(tokens));
+		}
+		
+		// Every thread scans every example with its own cursor on the same lexer
+		ForkJoinPool pool = new ForkJoinPool(4);
+		List<Future<List<List<ABToken>>>> results = new ArrayList<>();
+		for(int thread = 0; thread < 8; thread++) {
+			results.add(pool.submit(new Callable<List<List<ABToken>>>() {
+				@Override
+				public List<List<ABToken>> call() {
+					List<List<ABToken>> scans = new ArrayList<>();
+					for(String input : inputs) {
+						List<ABToken> nonError = new ArrayList<>(), error = new ArrayList<>();
+						ABScannerCursor cursor = lexer.scan(input);
+						while(cursor.hasNext()) {
+							ABToken token = cursor.next();
+							if(token.getToken().startsWith(ABTokenHelper.ERROR_TOKEN_PREFIX))
+								error.add(token);
+							else
+								nonError.add(token);
+						}
+						nonError.addAll(error);
+						scans.add(nonError);
+					}
+					return scans;
+				}
+			}));
+		}
+		
+		// Verify output
+		for(Future<List<List<ABToken>>> result : results) {
+			List<List<ABToken>> scans = result.get();
+			for(int i = 0; i < inputs.size(); i++)
+				assertArrayEquals(expected.get(i), ABTokenToString(scans.get(i)));
+		}
+		pool.shutdown();
+	}
+	
+	@Test
+	public void testTokenBuffer_matchesCursor() throws IOException {
+		CompiledLexer lexer = abScanner.getLexer();
+		List<String> inputs = new ArrayList<>();
+		for(int i = 1; i <= 5; i++)
+			inputs.add(IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt")));
+		inputs.add("");
+		inputs.add("if x then else1 programs program\n1.50 01 @ /* a");
+		
+		for(String input : inputs) {
+			
+			// Expected
+			List<ABToken> expected = new ArrayList<>();
+			ABScannerCursor cursor = lexer.scan(input);
+			while(cursor.hasNext())
+				expected.add(cursor.next());
+			
+			// Same tokens and kinds
+			ABTokenBuffer buffer = lexer.tokenize(input);
+			assertEquals(expected.size(), buffer.size());
+			assertArrayEquals(ABTokenToString(expected), ABTokenToString(buffer.asList()));
+			for(int i = 0; i < buffer.size(); i++) {
+				ABToken token = expected.get(i);
+				assertEquals(ABTokenKind.id(token.getToken()), buffer.getKind(i));
+				assertEquals(token.getToken(), buffer.getToken(i));
+				assertEquals(token.getToken().startsWith(ABTokenHelper.ERROR_TOKEN_PREFIX), buffer.isError(i));
+				assertEquals(token.getValue().length(), buffer.getLength(i));
+				assertEquals(token.getKind(), buffer.get(i).getKind());
+			}
+		}
+		
+		// Kinds are shared with the grammar terminals
+		assertEquals(ABTokenKind.id(ABTokenHelper.T_IDENTIFIER), new ABToken(ABTokenHelper.T_IDENTIFIER, "x", 1, 1).getKind());
+		assertTrue(new ABToken(ABTokenKind.id(ABTokenHelper.T_IDENTIFIER), "x", 1, 1).isIdentifier());
+		assertEquals(ABTokenHelper.T_IF, ABTokenKind.name(ReservedWords.IF.getKind()));
+	}
+	
+	@Test
+	public void testProcessEdit_matchesProcessText() throws IOException {
+		
+		// Inserted texts
+		String[] insertions = {"", "a", "1", "0.", " ", "\n", "\r\n", "/*", "*/", "//", "if", "=", "<"};
+		Random random = new Random(42);
+		
+		for(int i = 1; i <= 5; i++) {
+			String text = IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt"));
+			List<ABToken> tokens = abScanner.processEdit("", 0, 0, text, new ArrayList<ABToken>());
+			
+			// Apply edits, each one on the result of the previous one
+			for(int edit = 0; edit < 200; edit++) {
+				int offset = random.nextInt(text.length() + 1);
+				int removedLength = random.nextInt(Math.min(4, text.length() - offset) + 1);
+				String insertedText = insertions[random.nextInt(insertions.length)];
+				tokens = abScanner.processEdit(text, offset, removedLength, insertedText, tokens);
+				text = text.substring(0, offset) + insertedText + text.substring(offset + removedLength);
+				String[] nonError = ABTokenToString(abScanner.getNonErrorTokens());
+				String[] error = ABTokenToString(abScanner.getErrorTokens());
+				
+				// Verify output
+				abScanner.processText(text);
+				assertArrayEquals(ABTokenToString(abScanner.getNonErrorTokens()), nonError);
+				assertArrayEquals(ABTokenToString(abScanner.getErrorTokens()), error);
+			}
+			
+			// Tokens before the edit are reused
+			List<ABToken> edited = abScanner.processEdit(text, text.length(), 0, " x", tokens);
+			if(tokens.size() > 1)
+				assertSame(tokens.get(0), edited.get(0));
+		}
+	}
+	
+	@Test
+	public void testErrorPolicy_coalescesInvalidChars() throws IOException {
+		ABScanner scanner = new ABScanner("/scanner/machine.dfa");
+		scanner.setErrorPolicy(ABScannerErrorPolicy.COALESCE);
+		
+		// Runs of invalid chars are one token, a run stops at a line terminator
+		scanner.processText("a @#$ b\n!!?\n@x@@ 01");
+		assertArrayEquals(new String[]{"T_IDENTIFIER a 1 1", "T_IDENTIFIER b 1 7", "T_IDENTIFIER x 3 2"}, ABTokenToString(scanner.getNonErrorTokens()));
+		assertArrayEquals(new String[]{"T_ERR_INVALID_CHAR @#$ 1 3", "T_ERR_INVALID_CHAR !!? 2 1", "T_ERR_INVALID_CHAR @ 3 1", "T_ERR_INVALID_CHAR @@ 3 3", "T_ERR_LEADING_ZERO 01 3 6"}, ABTokenToString(scanner.getErrorTokens()));
+		
+		// Inputs
+		Random random = new Random(42);
+		List<String> inputs = new ArrayList<>();
+		for(int i = 1; i <= 5; i++)
+			inputs.add(IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt")));
+		for(int i = 0; i < 20; i++) {
+			StringBuilder garbage = new StringBuilder();
+			for(int j = 0; j < 200; j++)
+				garbage.append("@#$!? a1\n".charAt(random.nextInt(9)));
+			inputs.add(garbage.toString());
+		}
+		
+		ForkJoinPool pool = new ForkJoinPool(4);
+		for(String input : inputs) {
+			
+			// Expected, consecutive invalid chars of the same line merged
+			abScanner.processText(input);
+			List<ABToken> expected = new ArrayList<>();
+			for(ABToken token : abScanner.getErrorTokens()) {
+				ABToken last = expected.isEmpty() ? null : expected.get(expected.size() - 1);
+				if(last != null && token.getToken().equals(ABTokenHelper.T_ERR_INVALID_CHAR) && last.getToken().equals(ABTokenHelper.T_ERR_INVALID_CHAR)
+						&& last.getRow() == token.getRow() && last.getCol() + last.getValue().length() == token.getCol())
+					expected.set(expected.size() - 1, new ABToken(last.getToken(), last.getValue() + token.getValue(), last.getRow(), last.getCol()));
+				else
+					expected.add(token);
+			}
+			
+			// Sequential
+			scanner.processText(input);
+			assertArrayEquals(ABTokenToString(expected), ABTokenToString(scanner.getErrorTokens()));
+			assertArrayEquals(ABTokenToString(abScanner.getNonErrorTokens()), ABTokenToString(scanner.getNonErrorTokens()));
+			List<ABToken> all = new ArrayList<>(scanner.getNonErrorTokens());
+			all.addAll(scanner.getErrorTokens());
+			
+			// Stream through a small buffer
+			List<ABToken> streamed = new ArrayList<>();
+			ABScannerCursor cursor = scanner.stream(new StringReader(input), 2);
+			while(cursor.hasNext())
+				streamed.add(cursor.next());
+			assertEquals(all.size(), streamed.size());
+			
+			// Parallel with small chunks
+			ABParallelScanner parallelScanner = new ABParallelScanner(scanner.getLexer(), pool, 16);
+			parallelScanner.setCoalesceInvalidChars(true);
+			assertEquals(all.size(), parallelScanner.scan(input).size());
+			scanner.processTextParallel(input, pool);
+			assertArrayEquals(ABTokenToString(expected), ABTokenToString(scanner.getErrorTokens()));
+			
+			// Edits inserting invalid chars
+			List<ABToken> tokens = scanner.processEdit("", 0, 0, input, new ArrayList<ABToken>());
+			String text = input;
+			for(int edit = 0; edit < 50; edit++) {
+				int offset = random.nextInt(text.length() + 1);
+				int removedLength = random.nextInt(Math.min(3, text.length() - offset) + 1);
+				String insertedText = new String[]{"", "@", "#$", " ", "\n", "a"}[random.nextInt(6)];
+				tokens = scanner.processEdit(text, offset, removedLength, insertedText, tokens);
+				text = text.substring(0, offset) + insertedText + text.substring(offset + removedLength);
+				String[] error = ABTokenToString(scanner.getErrorTokens());
+				scanner.processText(text);
+				assertArrayEquals(ABTokenToString(scanner.getErrorTokens()), error);
+			}
+		}
+		pool.shutdown();
+	}
+	
+	@Test
+	public void testErrorPolicy_stopsAfterMaxErrors() {
+		ABScanner scanner = new ABScanner("/scanner/machine.dfa");
+		scanner.setErrorPolicy(new ABScannerErrorPolicy(false, 3));
+		String input = "a @ b # c\n$ d % e ^ f";
+		
+		// Three errors, then a summary at the fourth one
+		scanner.processText(input);
+		assertArrayEquals(new String[]{"T_IDENTIFIER a 1 1", "T_IDENTIFIER b 1 5", "T_IDENTIFIER c 1 9", "T_IDENTIFIER d 2 3"}, ABTokenToString(scanner.getNonErrorTokens()));
+		assertArrayEquals(new String[]{"T_ERR_INVALID_CHAR @ 1 3", "T_ERR_INVALID_CHAR # 1 7", "T_ERR_INVALID_CHAR $ 2 1", "T_ERR_TOO_MANY_ERRORS 3 2 5"}, ABTokenToString(scanner.getErrorTokens()));
+		String[] expectedNonError = ABTokenToString(scanner.getNonErrorTokens());
+		String[] expectedError = ABTokenToString(scanner.getErrorTokens());
+		
+		// Same tokens from the other scans
+		scanner.processTextParallel(input);
+		assertArrayEquals(expectedNonError, ABTokenToString(scanner.getNonErrorTokens()));
+		assertArrayEquals(expectedError, ABTokenToString(scanner.getErrorTokens()));
+		List<ABToken> tokens = scanner.processEdit("", 0, 0, input, new ArrayList<ABToken>());
+		assertArrayEquals(expectedNonError, ABTokenToString(scanner.getNonErrorTokens()));
+		assertArrayEquals(expectedError, ABTokenToString(scanner.getErrorTokens()));
+		
+		// The returned tokens are complete for the next edit
+		assertEquals(11, tokens.size());
+		
+		// The cursor stops
+		ABScannerCursor cursor = scanner.stream(new StringReader(input));
+		int count = 0;
+		while(cursor.nextToken() != null)
+			count++;
+		assertEquals(8, count);
+		assertTrue(cursor.isAborted());
+		
+		// Default policy
+		scanner.setErrorPolicy(ABScannerErrorPolicy.DEFAULT);
+		StringBuilder garbage = new StringBuilder();
+		for(int i = 0; i < 5000; i++)
+			garbage.append(i % 2 == 0 ? "@" : " ");
+		scanner.processText(garbage.toString());
+		assertEquals(ABScannerErrorPolicy.DEFAULT_MAX_ERRORS + 1, scanner.getErrorTokens().size());
+		assertEquals(ABTokenHelper.T_ERR_TOO_MANY_ERRORS, scanner.getErrorTokens().get(ABScannerErrorPolicy.DEFAULT_MAX_ERRORS).getToken());
+	}
+	
+	@Test
+	public void testGetReservedWord_matchesMap() {
+		
+		// Words and near misses
+		List<String> words = new ArrayList<>();
+		for(ReservedWords reservedWord : ReservedWords.values()) {
+			String match = reservedWord.getMatch();
+			words.add(match);
+			words.add(match.substring(1));
+			words.add(match.substring(0, match.length() - 1));
+			words.add(match + "s");
+			words.add(match.toUpperCase());
+		}
+		words.add("x");
+		words.add("programs");
+		words.add("\u00e9t\u00e9");
+		
+		for(String word : words) {
+			char[] buffer = ("  " + word + " ").toCharArray();
+			ReservedWords reservedWord = IdentifierHelper.getReservedWord(buffer, 2, 2 + word.length());
+			assertEquals(IdentifierHelper.getTokenIfReservedWord(word, null), reservedWord == null ? null : reservedWord.getToken());
+		}
+	}
+	
+	@Test
+	public void testTableModelCache_matchesMachine() throws IOException {
+		
+		// Parse machine
+		ABTableModel model = ABTableModelCache.parse("/scanner/machine.dfa");
+		byte[] hash = ABTableModelCache.hash(IOUtils.toByteArray(getClass().getResourceAsStream("/scanner/machine.dfa")));
+		
+		// Write and read cache
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ABTableModelCache.write(model, hash, out);
+		ABTableModel cached = ABTableModelCache.read(new ByteArrayInputStream(out.toByteArray()), hash);
+		
+		// Compare tables
+		assertEquals(model.getNumOfRow(), cached.getNumOfRow());
+		assertEquals(model.getNumOfCol(), cached.getNumOfCol());
+		for(int state = 0; state < model.getNumOfRow(); state++) {
+			assertEquals(state, model.getStateAtRow(state).getVID());
+			assertNull(cached.getStateAtRow(state));
+			assertEquals(model.isFinal(state), cached.isFinal(state));
+			assertEquals(model.isBacktrack(state), cached.isBacktrack(state));
+			assertEquals(model.isIdentifier(state), cached.isIdentifier(state));
+			assertEquals(model.getToken(state), cached.getToken(state));
+			for(int c = 0; c <= ABTableModel.CHAR_CLASS_SIZE; c++)
+				assertEquals(model.lookup(state, (char) c), cached.lookup(state, (char) c));
+		}
+		
+		// A different machine ignores the cache
+		hash[0]++;
+		assertNull(ABTableModelCache.read(new ByteArrayInputStream(out.toByteArray()), hash));
+	}
+	
+	@Test
+	public void testTableModelCache_keepsLargeTables() throws IOException {
+		
+		// More states than a char can hold
+		ABTableModel model = ABTableModelCache.parse("/scanner/machine.dfa");
+		char[] header = new char[model.getNumOfCol()];
+		for(int col = 0; col < header.length; col++)
+			header[col] = model.getCharAtCol(col);
+		int rows = 70000;
+		int[][] table = new int[rows][header.length];
+		for(int row = 0; row < rows; row++)
+			for(int col = 0; col < header.length; col++)
+				table[row][col] = (row + col + 1) % rows;
+		ABTableModel large = new ABTableModel(header, table, new boolean[rows], new boolean[rows], new String[rows]);
+		
+		// Write and read cache
+		byte[] hash = ABTableModelCache.hash(new byte[0]);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ABTableModelCache.write(large, hash, out);
+		ABTableModel cached = ABTableModelCache.read(new ByteArrayInputStream(out.toByteArray()), hash);
+		
+		// Same transitions
+		assertEquals(rows, cached.getNumOfRow());
+		for(int row = 0; row < rows; row++)
+			for(int col = 0; col < header.length; col++)
+				assertEquals(table[row][col], cached.getAt(row, col));
+	}
+	
+	@Test
+	public void testMinimize_matchesMachine() throws IOException {
+		
+		// Tables
+		ABTableModel model = ABTableModelCache.parse("/scanner/machine.dfa");
+		ABTableModel minimized = ABTableModelCache.parse("/scanner/machine.dfa", true);
+		assertTrue(minimized.getNumOfRow() <= model.getNumOfRow());
+		assertTrue(minimized.getTableSize() <= model.getTableSize());
+		
+		assertSameScanner(model, minimized);
+		
+		// Same tokens as the original scanner
+		ABScanner minimizedScanner = new ABScanner("/scanner/machine.dfa", true);
+		for(int i = 1; i <= 5; i++) {
+			String input = IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt"));
+			abScanner.processText(input);
+			minimizedScanner.processText(input);
+			assertArrayEquals(ABTokenToString(abScanner.getNonErrorTokens()), ABTokenToString(minimizedScanner.getNonErrorTokens()));
+			assertArrayEquals(ABTokenToString(abScanner.getErrorTokens()), ABTokenToString(minimizedScanner.getErrorTokens()));
+		}
+	}
+	
+	@Test
+	public void testToDFA_matchesMachine() throws IOException {
+		
+		// Route every transition of the machine through a lambda transition
+		FiniteAutomata machine = FiniteAutomata.inParser("/scanner/machine.dfa");
+		FiniteAutomata nfa = new FiniteAutomata('q');
+		State[] states = machine.getStates();
+		State[] nfaStates = new State[states.length];
+		for(int i = 0; i < states.length; i++) {
+			nfaStates[i] = nfa.addState(states[i].getStatus());
+			nfaStates[i].setToken(states[i].getToken());
+			nfaStates[i].setBacktrack(states[i].getBacktrack());
+		}
+		for(Transition transition : machine.getTransitions()) {
+			State middle = nfa.addState(State.NORMAL);
+			nfa.addTransition(nfaStates[transition.getFromState().getVID()], middle, transition.getRead());
+			nfa.addTransition(middle, nfaStates[transition.getToState().getVID()], Transition.LAMBDA);
+		}
+		assertTrue(nfa.hasLambdaTransitions());
+		
+		// Convert, the scanner needs the states equal to the initial state to be merged into it
+		FiniteAutomata dfa = nfa.toDFA();
+		assertFalse(dfa.hasLambdaTransitions());
+		dfa = dfa.minimize();
+		assertEquals(machine.minimize().getStates().length, dfa.getStates().length);
+		ABTableModel model = new ABTableModel(dfa.getStates(), dfa.getAllTransitionLabels());
+		
+		// Same tokens as the original scanner
+		for(int i = 1; i <= 5; i++) {
+			String input = IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt"));
+			abScanner.processText(input);
+			List<ABToken> expected = new ArrayList<>(abScanner.getNonErrorTokens());
+			expected.addAll(abScanner.getErrorTokens());
+			List<ABToken> nonError = new ArrayList<>();
+			List<ABToken> error = new ArrayList<>();
+			ABScannerCursor cursor = new ABScannerCursor(model, input);
+			while(cursor.hasNext()) {
+				ABToken token = cursor.next();
+				if(token.getToken().startsWith(ABTokenHelper.ERROR_TOKEN_PREFIX))
+					error.add(token);
+				else
+					nonError.add(token);
+			}
+			nonError.addAll(error);
+			assertArrayEquals(ABTokenToString(expected), ABTokenToString(nonError));
+		}
+	}
+	
+	@Test
+	public void testProcess_lambdaCycle() {
+		
+		// a* with a lambda cycle between the initial and the final state
+		FiniteAutomata nfa = new FiniteAutomata('q');
+		State initial = nfa.addState(State.INITIAL);
+		State middle = nfa.addState(State.NORMAL);
+		State end = nfa.addState(State.FINAL);
+		nfa.addTransition(initial, middle, Transition.LAMBDA);
+		nfa.addTransition(middle, initial, Transition.LAMBDA);
+		nfa.addTransition(middle, end, 'a');
+		nfa.addTransition(end, initial, Transition.LAMBDA);
+		
+		// Long input does not recurse
+		StringBuilder input = new StringBuilder();
+		for(int i = 0; i < 100000; i++)
+			input.append('a');
+		assertTrue(nfa.process(input.toString()));
+		assertEquals(input.length() * 3 - 1, nfa.getProcessTransitions().length);
+		assertFalse(nfa.process(""));
+		assertFalse(nfa.process("ab"));
+		assertEquals(0, nfa.getProcessTransitions().length);
+		
+		// Same language as a DFA
+		FiniteAutomata dfa = nfa.toDFA();
+		assertFalse(dfa.hasLambdaTransitions());
+		assertTrue(dfa.process("aaa"));
+		assertFalse(dfa.process(""));
+		assertFalse(dfa.process("ab"));
+	}
+	
+	@Test
+	public void testLexicalSpec_matchesMachine() throws IOException {
+		
+		// Compile the spec
+		ABTableModel model = ABTableModelCache.parse("/scanner/machine.dfa", true);
+		ABTableModel spec = ABLexicalSpec.parse("/scanner/tokens.spec").toTableModel();
+		assertEquals(model.getNumOfRow(), spec.getNumOfRow());
+		assertEquals(model.getNumOfCol(), spec.getNumOfCol());
+		assertSameScanner(model, spec);
+		
+		// Same tokens as the original scanner
+		ABScanner specScanner = new ABScanner("/scanner/tokens.spec");
+		for(int i = 1; i <= 5; i++) {
+			String input = IOUtils.toString(getClass().getResource("/scanner/input/example" + i + ".txt"));
+			abScanner.processText(input);
+			specScanner.processText(input);
+			assertArrayEquals(ABTokenToString(abScanner.getNonErrorTokens()), ABTokenToString(specScanner.getNonErrorTokens()));
+			assertArrayEquals(ABTokenToString(abScanner.getErrorTokens()), ABTokenToString(specScanner.getErrorTokens()));
+		}
+		
+		// Format errors
+		String[] wrongSpecs = {"token = T_A, a\nerror = T_ERR", "token = T_A, (\\.\nerror = T_ERR", "token = T_A, \\.*\nerror = T_ERR", "token = T_A, \\.", "skip = \\.\\.\nerror = T_ERR"};
+		for(String wrongSpec : wrongSpecs) {
+			try {
+				ABLexicalSpec.parse(new ByteArrayInputStream(wrongSpec.getBytes(StandardCharsets.UTF_8)));
+				fail(wrongSpec);
+			} catch (IOException e) {
+				assertTrue(e.getMessage().startsWith("Wrong file format!"));
+			}
+		}
+	}
+	
+	/**
+	 * Walk two tables together from the initial state and check they scan the same way
+	 * @param expected
+	 * @param actual
+	 */
+	public void assertSameScanner(ABTableModel expected, ABTableModel actual) {
+		int[] pairOf = new int[expected.getNumOfRow()];
+		Arrays.fill(pairOf, -1);
+		List<Integer> pending = new ArrayList<>();
+		pairOf[0] = 0;
+		pending.add(0);
+		while(!pending.isEmpty()) {
+			int state = pending.remove(pending.size() - 1);
+			int actualState = pairOf[state];
+			assertEquals(expected.isFinal(state), actual.isFinal(actualState));
+			assertEquals(expected.isBacktrack(state), actual.isBacktrack(actualState));
+			assertEquals(expected.getToken(state), actual.getToken(actualState));
+			
+			// The scanner goes back to the initial state after a final state
+			if(expected.isFinal(state))
+				continue;
+			
+			for(int c = 0; c <= ABTableModel.CHAR_CLASS_SIZE; c++) {
+				int next = expected.lookup(state, (char) c);
+				int actualNext = actual.lookup(actualState, (char) c);
+				if(pairOf[next] < 0) {
+					pairOf[next] = actualNext;
+					pending.add(next);
+				}
+				assertEquals(pairOf[next], actualNext);
+			}
+		}
+	}
+	
 	/**
 	 * Get tokens keys arrays from an array of token
 	 * @param tokens
@@ -0,0 +1,45 @@
+% AB language tokens, compiled into the same table as machine.dfa
+% skip = labels ignored between tokens
+% error = token of a char that cannot start or complete a token
+% token = name, expression. On matches of equal length the first token wins
+skip = {space} | {eol} | {eof}
+error = T_ERR_INVALID_CHAR
+
+% Operators
+token = T_ASSIGN, =
+token = T_IS_EQUAL, ==
+token = T_LESS_THAN, <
+token = T_LESS_OR_EQUAL, <=
+token = T_IS_NOT_EQUAL, <>
+token = T_GREATER_THAN, >
+token = T_GREATER_OR_EQUAL, >=
+token = T_SEMICOLON, ;
+token = T_COMMA, ,
+token = T_DOT, \.
+token = T_PLUS, \+
+token = T_MINUS, -
+token = T_MULTIPLY, \*
+token = T_DIVIDE, /
+
+% Brackets
+token = T_OPEN_PAREN, \(
+token = T_CLOSE_PAREN, \)
+token = T_OPEN_CURLY, \{
+token = T_CLOSE_CURLY, \}
+token = T_OPEN_SQUARE, \[
+token = T_CLOSE_SQUARE, \]
+
+% Words and numbers, reserved words are found by the scanner
+token = T_IDENTIFIER, {letter} ({letter} | {digit} | _)*
+token = T_INTEGER, {nonzero} {digit}* | 0
+token = T_FLOAT, ({nonzero} {digit}* | 0) \. ({digit}* {nonzero} | 0)
+
+% Comments
+token = T_INLINE_COMMENT, // [^{eol}{eof}]*
+token = T_BLOCK_COMMENT, /\* ([^*{eof}] | \*+ [^*/{eof}])* \*+ /
+
+% Errors
+token = T_ERR_LEADING_ZERO, 0 {digit}+
+token = T_ERR_FLOAT_FORMAT, ({nonzero} {digit}* | 0) \.
+token = T_ERR_TRAILING_ZERO, ({nonzero} {digit}* | 0) \. {digit}+ 0
+token = T_ERR_BLOCK_COMMENT, /\* ([^*{eof}] | \*+ [^*/{eof}])* \**